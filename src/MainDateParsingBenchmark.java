@@ -0,0 +1,79 @@
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import util.DateParser;
+import util.Util;
+
+/**
+ * Main class that compares the parsing of timestamps with SimpleDateFormat (one instance per attempt, as done
+ * by Util.tryParse before) with the cached java.time parser, sequentially and in parallel
+ *
+ * @author Martin Kaeppel
+ */
+public class MainDateParsingBenchmark {
+
+	public static void main(String args[]) {
+		int NUMBER_OF_TIMESTAMPS = 500000;
+		int ROUNDS = 3;
+
+		//Timestamps in the format of XES files, a few without milliseconds
+		List<String> timestamps = new ArrayList<String>();
+		DateTimeFormatter withMillis = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSSXXX").withZone(ZoneOffset.ofHours(1));
+		DateTimeFormatter withoutMillis = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ssXXX").withZone(ZoneOffset.ofHours(1));
+		Random random = new Random(42);
+		for(int i = 0; i < NUMBER_OF_TIMESTAMPS; i++) {
+			Instant instant = Instant.ofEpochMilli(1262304000000L+(long) (random.nextDouble()*315360000000L));
+			if(i % 10 == 0) {
+				timestamps.add(withoutMillis.format(instant));
+			}
+			else {
+				timestamps.add(withMillis.format(instant));
+			}
+		}
+
+		for(int round = 0; round < ROUNDS; round++) {
+			long start = System.currentTimeMillis();
+			long checksumOld = 0;
+			for(String timestamp : timestamps) {
+				checksumOld = checksumOld + parseWithSimpleDateFormat(timestamp).getTime();
+			}
+			long timeOld = System.currentTimeMillis()-start;
+
+			start = System.currentTimeMillis();
+			long checksumNew = 0;
+			for(String timestamp : timestamps) {
+				checksumNew = checksumNew + Util.tryParse(timestamp).getTime();
+			}
+			long timeNew = System.currentTimeMillis()-start;
+
+			start = System.currentTimeMillis();
+			DateParser parser = new DateParser();
+			long checksumParallel = timestamps.parallelStream().mapToLong(parser::parseMillis).sum();
+			long timeParallel = System.currentTimeMillis()-start;
+
+			System.out.println("Round "+(round+1)+": SimpleDateFormat "+timeOld+" ms, DateParser "+timeNew+" ms, DateParser parallel "+timeParallel+" ms");
+			if(checksumOld != checksumNew || checksumOld != checksumParallel) {
+				System.err.println("Different results of the parsers!");
+			}
+		}
+	}
+
+	private static Date parseWithSimpleDateFormat(String dateString) {
+		for(String formatString : Util.formatStrings) {
+			try {
+				return new SimpleDateFormat(formatString).parse(dateString);
+			}
+			catch(ParseException e) {
+
+			}
+		}
+		return null;
+	}
+}
@@ -1,24 +1,14 @@
-import java.io.File;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
-import org.apache.commons.io.FilenameUtils;
-import org.deckfour.xes.model.XLog;
-
-import loader.Loader;
 import ml.Approach;
 import ml.GenerativeLSTM;
-import preprocessing.Filtering;
-import reducer.ReducedLogContainer;
+import pipeline.ExperimentRunner;
 import reducer.Reducer;
 import reducer.ReducerRandom;
 import splitter.Splitter;
 import splitter.SplitterByStartingTime;
 import splitter.SplitterRandom;
-import splitter.TestTrainObject;
-import util.Serializer;
 
 /**
  * Main class for the reduction of event logs
@@ -78,100 +68,12 @@ public class MainNew {
 		pipeline(eventLogs, desiredReductions, splitters, reducers, ratios, approaches, CONSIDER_LIFECYCLE);		
 	}
 	
+	/**
+	 * Runs the experiments for all combinations of the given parameters. The independent steps are executed in
+	 * parallel, one thread per available processor is used.
+	 */
 	public static void pipeline(List<String> eventLogs, List<Double> desiredReductions, List<Splitter> splitters, List<Reducer> reducers, List<Double> ratios, List<Approach> approaches, boolean lifecycle) {
-		for(String eventLog : eventLogs) {
-			System.out.println(eventLog);
-			
-			//Create a directory for all created files
-			String pathDataDirectory = FilenameUtils.getFullPath(eventLog)+"\\data";
-			File dataDirectory = new File(pathDataDirectory);
-			if(!dataDirectory.exists()) {
-				dataDirectory.mkdir();
-			}
-			
-			//Load event log
-			Loader loader = Loader.getInstance();
-			XLog log = loader.getProcessLog(eventLog);
-			
-			//Preprocessing
-			Filtering filtering = new Filtering();
-			XLog preprocessedLog = filtering.filterEventLog(log, true, true, true, lifecycle);
-			
-			//Storing the preprocessedLog
-			Serializer serializer = new Serializer();
-			serializer.serializeLog(preprocessedLog, pathDataDirectory, "log_preprocessed");
-
-
-			//Splitting into test and training data using all available splitters
-			for(Splitter splitter : splitters) {
-				//Create an own directory for the splitter
-				String pathSplitter = pathDataDirectory+"\\"+splitter.getClass().getSimpleName();
-				
-				File splitterDirectory = new File(pathSplitter);
-				if(!splitterDirectory.exists()) {
-					splitterDirectory.mkdir();
-				}
-				
-				//Split preprocessed log into test and training data
-				for(double sizeTestData : ratios) {
-					String pathRatio = pathSplitter+"\\"+sizeTestData;
-					
-					File ratioDirectory = new File(pathRatio);
-					if(!ratioDirectory.exists()) {
-						ratioDirectory.mkdir();
-					}
-					
-					TestTrainObject testTrainObject = splitter.splitEventLog(preprocessedLog, sizeTestData);
-					XLog testLog = testTrainObject.getTestLog();
-					XLog trainingLog = testTrainObject.getTrainingLog();
-					
-					//Persist test data
-					serializer.serializeLog(testLog, pathRatio, "log_test");
-					
-					//Reduce the training log with regard to the given reduction factors
-					for(Reducer reducer : reducers) {
-						//Create within the splitter directory a directory for the reducer
-						String pathReducer = pathRatio+"\\"+reducer.getClass().getSimpleName();
-						
-						File reducerDirectory = new File(pathReducer);
-						if(!reducerDirectory.exists()) {
-							reducerDirectory.mkdir();
-						}
-						
-						Set<ReducedLogContainer> reducedLogs = new HashSet<ReducedLogContainer>();
-						ReducedLogContainer trainingContainer = new ReducedLogContainer(trainingLog, "log_train_red_10");					
-						ReducedLogContainer testContainer = new ReducedLogContainer(testLog, "log_test");
-
-						reducedLogs.add(trainingContainer);
-						reducedLogs.add(testContainer);
-						
-						for(Double reductionFactor : desiredReductions) {
-							XLog reducedLog = reducer.reduce(trainingLog, reductionFactor.doubleValue());
-							String dString = String.valueOf(reductionFactor);
-							String[] splitted = dString.split("\\.");
-							serializer.serializeLog(reducedLog, pathReducer, "log_train_red_"+splitted[0]+splitted[1]);
-							ReducedLogContainer container = new ReducedLogContainer(reducedLog, "log_train_red_"+splitted[0]+splitted[1]);
-							reducedLogs.add(container);
-						}
-						serializer.serializeLog(trainingLog, pathReducer, "log_train_red_10");
-
-						
-						//Create all necessary input files for the different approaches that should be compared
-						for(Approach approach : approaches) {
-							String pathApproach = pathReducer+"\\"+approach.getClass().getSimpleName();
-							
-							File approachDirectory = new File(pathApproach);
-							if(!approachDirectory.exists()) {
-								approachDirectory.mkdir();
-							}
-							approach.createInputFiles(preprocessedLog, reducedLogs, pathApproach, lifecycle);				
-						}
-						
-					}	
-				}
-			}
-		}	
+		ExperimentRunner runner = new ExperimentRunner(Runtime.getRuntime().availableProcessors());
+		runner.run(eventLogs, desiredReductions, splitters, reducers, ratios, approaches, lifecycle);
 	}
-}
-
-
+}
\ No newline at end of file
@@ -0,0 +1,85 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import parser.organizational.ProfileMatrix;
+import parser.organizational.RoleExtractor;
+import util.UnionFind;
+
+/**
+ * Main class that compares the exact role extraction with the approximate extraction with locality sensitive
+ * hashing. The profiles are generated: the originators are divided into groups that work on the same activities
+ * with different workloads and some noise. The recall is the share of the pairs of originators in the same exact
+ * role that are in the same approximate role, the approximate roles never join originators of different exact roles.
+ *
+ * @author Martin Kaeppel
+ */
+public class MainRoleExtractionBenchmark {
+
+	public static void main(String args[]) {
+		int[] NUMBERS_OF_ORIGINATORS = {1000, 5000, 20000};
+		int NUMBER_OF_ACTIVITIES = 200;
+		int ORIGINATORS_PER_GROUP = 25;
+		double THRESHOLD = 0.85;
+
+		for(int numberOfOriginators : NUMBERS_OF_ORIGINATORS) {
+			ProfileMatrix profiles = generateProfiles(numberOfOriginators, NUMBER_OF_ACTIVITIES, ORIGINATORS_PER_GROUP, new Random(42));
+
+			long start = System.currentTimeMillis();
+			UnionFind exact = new RoleExtractor().connect(profiles, THRESHOLD);
+			long timeExact = System.currentTimeMillis()-start;
+
+			start = System.currentTimeMillis();
+			UnionFind approximate = new RoleExtractor(true, 42).connect(profiles, THRESHOLD);
+			long timeApproximate = System.currentTimeMillis()-start;
+
+			System.out.println(numberOfOriginators+" originators: exact "+timeExact+" ms ("+exact.getNumberOfSets()+" roles), approximate "
+					+timeApproximate+" ms ("+approximate.getNumberOfSets()+" roles), recall "+recall(exact, approximate));
+		}
+	}
+
+	/**
+	 * Returns the share of the pairs in the same set of the exact union find that are in the same set of the approximate one
+	 */
+	private static double recall(UnionFind exact, UnionFind approximate) {
+		//Number of elements per exact set and per pair of exact and approximate set
+		Map<Integer, Long> exactSizes = new HashMap<Integer, Long>();
+		Map<Long, Long> commonSizes = new HashMap<Long, Long>();
+		for(int i = 0; i < exact.size(); i++) {
+			int exactRoot = exact.find(i);
+			exactSizes.merge(exactRoot, 1L, Long::sum);
+			commonSizes.merge(((long) exactRoot << 32) | approximate.find(i), 1L, Long::sum);
+		}
+		long exactPairs = 0;
+		for(long size : exactSizes.values()) {
+			exactPairs = exactPairs+size*(size-1)/2;
+		}
+		long commonPairs = 0;
+		for(long size : commonSizes.values()) {
+			commonPairs = commonPairs+size*(size-1)/2;
+		}
+		return exactPairs == 0 ? 1 : commonPairs/(double) exactPairs;
+	}
+
+	/**
+	 * Generates the profiles of groups of originators, every group works on a few activities
+	 */
+	private static ProfileMatrix generateProfiles(int numberOfOriginators, int numberOfActivities, int originatorsPerGroup, Random random) {
+		String[] originators = new String[numberOfOriginators];
+		double[][] rows = new double[numberOfOriginators][numberOfActivities];
+		double[] base = new double[numberOfActivities];
+		for(int i = 0; i < numberOfOriginators; i++) {
+			if(i % originatorsPerGroup == 0) {
+				for(int k = 0; k < numberOfActivities; k++) {
+					base[k] = random.nextInt(10) == 0 ? 1+random.nextInt(50) : 0;
+				}
+			}
+			double workload = 1+4*random.nextDouble();
+			for(int k = 0; k < numberOfActivities; k++) {
+				rows[i][k] = Math.round(base[k]*workload+(random.nextInt(20) == 0 ? random.nextInt(30) : 0));
+			}
+			originators[i] = "Originator "+i;
+		}
+		return new ProfileMatrix(originators, rows, numberOfActivities);
+	}
+}
@@ -1,100 +1,99 @@
 package augmentation;
 
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.deckfour.xes.factory.XFactory;
 import org.deckfour.xes.factory.XFactoryBufferedImpl;
 import org.deckfour.xes.model.XLog;
+import org.deckfour.xes.model.XTrace;
 
+import parser.LogStatistics;
 import parser.Parser;
+import util.DateParser;
+import util.IdGenerator;
+import util.IdGenerator.IdBlock;
 import util.Serializer;
 
+/**
+ * Augments an event log with synthetic traces. The source traces are sampled by random positions and the
+ * synthetic traces are generated in parallel. Each block of synthetic traces uses an own random number generator
+ * that is split from the seed, so that the augmented log only depends on the seed and not on the number of threads.
+ * The ids of the synthetic traces are taken from the namespace of the title and assigned by the positions of the traces.
+ */
 public class Augmentation {
-	
+	//Number of synthetic traces that are generated by one task
+	public final static int BLOCK_SIZE = 1024;
+
+	private int threads;
+
 	public Augmentation() {
-		
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param threads	Number of threads that generate the synthetic traces
+	 */
+	public Augmentation(int threads) {
+		this.threads = threads;
 	}
-	
+
 	public XLog augmentProcessLog(int augmentationFactor, Map<Augmentor, Double> augmentors, XLog processLog, String path, String title) {
-		Parser p = new Parser();
+		return augmentProcessLog(augmentationFactor, augmentors, processLog, path, title, new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Augments an event log, for the same seed the same synthetic traces are generated
+	 * @param seed		Seed of the random number generators
+	 */
+	public XLog augmentProcessLog(int augmentationFactor, Map<Augmentor, Double> augmentors, XLog processLog, String path, String title, long seed) {
 		Serializer s = new Serializer();
 		if(checkWeights(augmentors) == true) {
 			XFactory factory = new XFactoryBufferedImpl();
 			XLog augmentedLog = factory.createLog();
-						
+
 			//Calculates the number of traces that should be generated by each augmentor
 			int numberOfSyntheticTraces = (augmentationFactor*processLog.size());
 			System.out.println(numberOfSyntheticTraces);
-			
-			//Apply different augmentors
-			for(Augmentor a : augmentors.keySet()) {
+
+			//The augmentors are ordered by their class names, so that the positions of the synthetic traces are independent of the map
+			List<Augmentor> orderedAugmentors = new ArrayList<Augmentor>(augmentors.keySet());
+			orderedAugmentors.sort(Comparator.comparing(a -> a.getClass().getName()));
+			List<Augmentor> slots = new ArrayList<Augmentor>();
+			List<Integer> slotNumbers = new ArrayList<Integer>();
+			for(Augmentor a : orderedAugmentors) {
 				int tracesToGenerate = (int) (augmentors.get(a)*numberOfSyntheticTraces);
 				System.out.println(tracesToGenerate);
-				if(a instanceof TimeSeriesAugmentor) {
-					TimeSeriesAugmentor timeSeriesAugmentor = (TimeSeriesAugmentor) a;
-					
-					while(tracesToGenerate > 0) {
-						long timeStep = ThreadLocalRandom.current().nextLong(p.getMinimalDuration(processLog), p.getMaximalDuration(processLog));
-						Collections.shuffle(processLog);
-						augmentedLog.add(timeSeriesAugmentor.shiftTrace(processLog.get(0), timeStep));
-						tracesToGenerate--;
-						if(tracesToGenerate != 0) {
-							double factor = 2*Math.random();
-							Collections.shuffle(processLog);
-							augmentedLog.add(timeSeriesAugmentor.stretchTrace(processLog.get(0), factor));
-						}
-						else {
-							break;
-						}
-					}
-				}
-				
-				/* TO DO: Not supported right now
-				if(a instanceof BayesAugmentor) {
-					BayesAugmentor bayesAugmentor = (BayesAugmentor) a;
-					
-					while(tracesToGenerate > 0) {
+				if(a instanceof TimeSeriesAugmentor || a instanceof FragmentAugmentor || a instanceof NoiseAugmentor) {
+					for(int i = 0; i < tracesToGenerate; i++) {
+						slots.add(a);
+						slotNumbers.add(i);
 					}
 				}
-				//Has right now an negative effect...
-				if(a instanceof GenericAugmentor) {
-					GenericAugmentor genericAugmentor = (GenericAugmentor) a;
-					
-					while(tracesToGenerate > 0) {
-					}
-				}
-				*/
-				
-				if(a instanceof FragmentAugmentor) {
-					FragmentAugmentor fragmentAugmentor = (FragmentAugmentor) a;
-					
-					while(tracesToGenerate > 0) {
-						tracesToGenerate--;
-						Collections.shuffle(processLog);
-						augmentedLog.add(fragmentAugmentor.createFragmentFromStartKeepEnd(processLog.get(0)));
-					}
+				/* TO DO: BayesAugmentor and GenericAugmentor are not supported right now */
+			}
 
-				}
-				
-				
-				if(a instanceof NoiseAugmentor) {
-					NoiseAugmentor noiseAugmentor = (NoiseAugmentor) a;
-					
-					while(tracesToGenerate > 0) {
-						tracesToGenerate--;
-						Collections.shuffle(processLog);
-						augmentedLog.add(noiseAugmentor.doubleEvent(processLog.get(0)));
-						if(tracesToGenerate >= 1) {
-							tracesToGenerate--;
-							Collections.shuffle(processLog);
-							augmentedLog.add(noiseAugmentor.swapping(processLog.get(0)));
-						}
-					}
+			//The ids of the synthetic traces are counted in the namespace of the run, so that they are reproducible
+			IdGenerator namespace = IdGenerator.getNamespace(title);
+			namespace.reset();
+			XTrace[] syntheticTraces = generate(processLog, slots, slotNumbers, namespace.reserve(slots.size()), seed);
+			if(syntheticTraces == null) {
+				System.err.println("Fehler: Die Augmentierung ist fehlgeschlagen, das Log wird nicht gespeichert!");
+				return null;
+			}
+			for(XTrace trace : syntheticTraces) {
+				if(trace != null) {
+					augmentedLog.add(trace);
 				}
 			}
-				
+
 			//Add to original log and serialize log
 			s.serializeLog(augmentedLog, path, title);
 			return augmentedLog;
@@ -103,15 +102,117 @@ public class Augmentation {
 			System.err.println("Fehler: Die Gewichtung der einzelnen Augmentoren muss in Summe 1 ergeben!");
 			return null;
 		}
-		
+
 	}
-	
+
+	/**
+	 * Generates the synthetic traces in blocks, every trace is stored at the position of its slot
+	 * @param slots			Augmentor of each synthetic trace
+	 * @param slotNumbers	Number of each synthetic trace among the traces of its augmentor
+	 * @param ids			Ids of the synthetic traces, one per slot
+	 * @return synthetic traces or null if the generation failed or was interrupted
+	 */
+	private XTrace[] generate(XLog processLog, List<Augmentor> slots, List<Integer> slotNumbers, IdBlock ids, long seed) {
+		XTrace[] syntheticTraces = new XTrace[slots.size()];
+		if(processLog.isEmpty() || slots.isEmpty()) {
+			return syntheticTraces;
+		}
+		//The duration bounds are computed once for all time series augmentations, without any trace with two
+		//timestamps the minimum is Long.MAX_VALUE and the maximum Long.MIN_VALUE
+		LogStatistics statistics = new Parser().getStatistics(processLog);
+		long minimalDuration = statistics.getMinimalDuration();
+		long maximalDuration = statistics.getMaximalDuration();
+		//Timestamps stored as text are parsed with the parser of the log, which keeps the detected format of the log
+		DateParser parser = DateParser.forLog(processLog);
+
+		//The generators of the blocks are split in a fixed order
+		SplittableRandom random = new SplittableRandom(seed);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<?>> blocks = new ArrayList<Future<?>>();
+		try {
+			for(int start = 0; start < syntheticTraces.length; start = start+BLOCK_SIZE) {
+				int blockStart = start;
+				int blockEnd = Math.min(start+BLOCK_SIZE, syntheticTraces.length);
+				SplittableRandom blockRandom = random.split();
+				IdBlock blockIds = ids.subBlock(blockStart, blockEnd-blockStart);
+				blocks.add(executor.submit(() -> {
+					IdGenerator.bind(blockIds);
+					try {
+						for(int i = blockStart; i < blockEnd; i++) {
+							//Every synthetic trace gets the id of its slot
+							blockIds.seek(i-blockStart);
+							XTrace source = processLog.get(blockRandom.nextInt(processLog.size()));
+							syntheticTraces[i] = generate(slots.get(i), slotNumbers.get(i), source, minimalDuration, maximalDuration, blockRandom, parser);
+						}
+					}
+					finally {
+						IdGenerator.unbind();
+					}
+				}));
+			}
+			for(Future<?> block : blocks) {
+				block.get();
+			}
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			System.err.println("Augmentation interrupted");
+			return null;
+		}
+		catch(ExecutionException e) {
+			System.err.println("Augmentation failed: "+e.getCause());
+			return null;
+		}
+		finally {
+			//Remaining blocks are not needed after a failure
+			executor.shutdownNow();
+		}
+		return syntheticTraces;
+	}
+
+	/**
+	 * Generates a synthetic trace, the augmentors alternate between their techniques as before
+	 */
+	private XTrace generate(Augmentor a, int slotNumber, XTrace source, long minimalDuration, long maximalDuration, SplittableRandom random, DateParser parser) {
+		if(a instanceof TimeSeriesAugmentor) {
+			TimeSeriesAugmentor timeSeriesAugmentor = (TimeSeriesAugmentor) a;
+			if(slotNumber % 2 == 0) {
+				long timeStep = 0;
+				if(minimalDuration < maximalDuration) {
+					timeStep = random.nextLong(minimalDuration, maximalDuration);
+				}
+				else if(minimalDuration == maximalDuration) {
+					timeStep = minimalDuration;
+				}
+				return timeSeriesAugmentor.shiftTrace(source, timeStep, parser);
+			}
+			else {
+				double factor = 2*random.nextDouble();
+				return timeSeriesAugmentor.stretchTrace(source, factor, parser);
+			}
+		}
+		if(a instanceof FragmentAugmentor) {
+			FragmentAugmentor fragmentAugmentor = (FragmentAugmentor) a;
+			return fragmentAugmentor.createFragmentFromStartKeepEnd(source, random);
+		}
+		if(a instanceof NoiseAugmentor) {
+			NoiseAugmentor noiseAugmentor = (NoiseAugmentor) a;
+			if(slotNumber % 2 == 0) {
+				return noiseAugmentor.doubleEvent(source, random);
+			}
+			else {
+				return noiseAugmentor.swapping(source, random);
+			}
+		}
+		return null;
+	}
+
 	private boolean checkWeights(Map<Augmentor, Double> augmentors) {
 		double sum = 0;
 		for(Augmentor a : augmentors.keySet()) {
 			sum = sum + augmentors.get(a);
 		}
-		
+
 		if(sum == 1) {
 			return true;
 		}
@@ -1,9 +1,8 @@
 package augmentation;
 
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.SplittableRandom;
 
 import org.deckfour.xes.extension.std.XConceptExtension;
-import org.deckfour.xes.model.XEvent;
 import org.deckfour.xes.model.XTrace;
 
 import util.IdGenerator;
@@ -21,16 +20,10 @@ public class FragmentAugmentor extends Augmentor {
 	
 	public XTrace subtrace(XTrace trace, int start, int end) {		
 		if(start >= 0 && start <= end && end <= trace.size()) {
-			XTrace subtrace = (XTrace) trace.clone();
+			//The events are shared with the source trace
+			XTrace subtrace = new SyntheticTrace(trace, start, Math.min(end+1, trace.size()));
 			String oldCaseId = trace.getAttributes().get("concept:name").toString();
 			XConceptExtension.instance().assignName(subtrace, oldCaseId+"_syn"+IdGenerator.getNewId());
-			subtrace.clear();
-			for(int i=0; i < trace.size(); i++) {
-				if(i >= start && i <= end) {
-					XEvent newEvent = (XEvent) trace.get(i).clone();
-					subtrace.add(newEvent);
-				}
-			}
 			return subtrace;
 		}
 		else {
@@ -40,9 +33,13 @@ public class FragmentAugmentor extends Augmentor {
 	}
 	
 	public XTrace createRandomFragment(XTrace trace) {
+		return createRandomFragment(trace, new SplittableRandom());
+	}
+	
+	public XTrace createRandomFragment(XTrace trace, SplittableRandom random) {
 		int length = trace.size();
-		int start = ThreadLocalRandom.current().nextInt(0, length);
-		int end = ThreadLocalRandom.current().nextInt(0, length);
+		int start = random.nextInt(0, length);
+		int end = random.nextInt(0, length);
 		
 		if(start > end) {
 			int temp = end;
@@ -54,15 +51,23 @@ public class FragmentAugmentor extends Augmentor {
 	}
 	
 	public XTrace createFragmentFromStart(XTrace trace) {
+		return createFragmentFromStart(trace, new SplittableRandom());
+	}
+	
+	public XTrace createFragmentFromStart(XTrace trace, SplittableRandom random) {
 		int length = trace.size();
-		int end = ThreadLocalRandom.current().nextInt(0, length);
+		int end = random.nextInt(0, length);
 		
 		return subtrace(trace, 0, end);
 	}
 	
 	public XTrace createFragmentFromStartKeepEnd(XTrace trace) {
+		return createFragmentFromStartKeepEnd(trace, new SplittableRandom());
+	}
+	
+	public XTrace createFragmentFromStartKeepEnd(XTrace trace, SplittableRandom random) {
 		int length = trace.size();
-		int end = ThreadLocalRandom.current().nextInt(0, length);
+		int end = random.nextInt(0, length);
 		XTrace tr = subtrace(trace, 0, end);
 		tr.add(trace.get(trace.size()-1));
 		return tr;
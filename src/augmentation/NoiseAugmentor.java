@@ -1,6 +1,6 @@
 package augmentation;
 
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.SplittableRandom;
 
 import org.deckfour.xes.extension.std.XConceptExtension;
 import org.deckfour.xes.model.XEvent;
@@ -15,16 +15,23 @@ public class NoiseAugmentor extends Augmentor {
 	}
 	
 	public XTrace replaceStartActivity(XTrace trace, XEvent start) {
-		XTrace replacedTrace = (XTrace) trace.clone();
+		XTrace replacedTrace = new SyntheticTrace(trace);
 		replacedTrace.set(0, start);
 		return replacedTrace;
 	}
 	
 	
 	public XTrace swapping(XTrace trace) {
-		if(trace.size() >= 2) {
-			int pos = ThreadLocalRandom.current().nextInt(1, trace.size()-1);
-			XTrace swappedTrace = (XTrace) trace.clone();
+		return swapping(trace, new SplittableRandom());
+	}
+	
+	/*
+	 * Swaps two neighboured events, the first event is never swapped
+	 */
+	public XTrace swapping(XTrace trace, SplittableRandom random) {
+		if(trace.size() >= 3) {
+			int pos = random.nextInt(1, trace.size()-1);
+			XTrace swappedTrace = new SyntheticTrace(trace);
 			String oldCaseId = trace.getAttributes().get("concept:name").toString();
 			XConceptExtension.instance().assignName(swappedTrace, oldCaseId+"_syn"+IdGenerator.getNewId());
 			XEvent firstEvent = trace.get(pos);
@@ -42,10 +49,14 @@ public class NoiseAugmentor extends Augmentor {
 	 * Verdopple ein zufaelliges Event, Probleme bei Zeit
 	 */
 	public XTrace doubleEvent(XTrace trace) {
-		XTrace doubledEventTrace = (XTrace) trace.clone();
+		return doubleEvent(trace, new SplittableRandom());
+	}
+	
+	public XTrace doubleEvent(XTrace trace, SplittableRandom random) {
+		XTrace doubledEventTrace = new SyntheticTrace(trace);
 		String oldCaseId = trace.getAttributes().get("concept:name").toString();
 		XConceptExtension.instance().assignName(doubledEventTrace, oldCaseId+"_syn"+IdGenerator.getNewId());
-		int pos = ThreadLocalRandom.current().nextInt(0, trace.size());
+		int pos = random.nextInt(0, trace.size());
 		XEvent doubleEvent = trace.get(pos);
 		doubledEventTrace.add(pos, doubleEvent);
 		return doubledEventTrace;
@@ -0,0 +1,92 @@
+package augmentation;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import org.deckfour.xes.model.XEvent;
+import org.deckfour.xes.model.XTrace;
+import org.deckfour.xes.model.impl.XAttributeMapImpl;
+import org.deckfour.xes.model.impl.XEventImpl;
+import org.deckfour.xes.model.impl.XTraceImpl;
+
+/**
+ * Trace that is derived from a source trace with copy-on-write. The trace references the unchanged events of the
+ * source trace, an event is only copied before it is modified. The copy gets an own attribute map that references
+ * the attributes of the source event, so attributes have to be replaced by put and must not be changed in place.
+ * The trace attributes are copied the same way. Since the trace is a normal XTrace it can be serialized as usual.
+ * Events inserted by add or set are not copied and are treated like the events of the source trace.
+ *
+ * @author Martin Kaeppel
+ */
+public class SyntheticTrace extends XTraceImpl {
+	private static final long serialVersionUID = 1L;
+
+	//Events that belong to this trace and can be modified
+	private Set<XEvent> ownEvents;
+
+	/**
+	 * Creates a trace that references all events of the source trace
+	 */
+	public SyntheticTrace(XTrace source) {
+		this(source, 0, source.size());
+	}
+
+	/**
+	 * Creates a trace that references the events of the source trace from start (inclusive) to end (exclusive)
+	 */
+	public SyntheticTrace(XTrace source, int start, int end) {
+		super(new XAttributeMapImpl(source.getAttributes()));
+		ensureCapacity(end-start+1);
+		addAll(source.subList(start, end));
+		ownEvents = Collections.newSetFromMap(new IdentityHashMap<XEvent, Boolean>());
+	}
+
+	/**
+	 * Returns the event at the given position, that can be modified. If the event is still shared with the source
+	 * trace, it is replaced by a copy first.
+	 */
+	public XEvent getWritableEvent(int index) {
+		XEvent event = get(index);
+		if(ownEvents.contains(event)) {
+			return event;
+		}
+		XEvent copy = new XEventImpl(new XAttributeMapImpl(event.getAttributes()));
+		set(index, copy);
+		ownEvents.add(copy);
+		return copy;
+	}
+
+	/**
+	 * Returns true if the event at the given position was copied by getWritableEvent and belongs to this trace.
+	 * Events inserted by add or set are treated as shared, since they usually are events of another trace.
+	 */
+	public boolean isWritable(int index) {
+		return ownEvents.contains(get(index));
+	}
+
+	/**
+	 * Returns the number of events that are copies, the other events are shared with the source trace
+	 */
+	public int getNumberOfOwnEvents() {
+		int count = 0;
+		for(XEvent event : this) {
+			if(ownEvents.contains(event)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns a deep copy, all events of the copy belong to the copy
+	 */
+	@Override
+	public Object clone() {
+		SyntheticTrace clone = (SyntheticTrace) super.clone();
+		clone.ownEvents = Collections.newSetFromMap(new IdentityHashMap<XEvent, Boolean>());
+		clone.ownEvents.addAll(clone);
+		return clone;
+	}
+
+}
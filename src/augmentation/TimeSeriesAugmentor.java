@@ -1,15 +1,16 @@
 package augmentation;
 
-import java.util.Date;
-import java.util.Iterator;
+import java.util.SplittableRandom;
 
 import org.deckfour.xes.extension.std.XConceptExtension;
 import org.deckfour.xes.extension.std.XTimeExtension;
+import org.deckfour.xes.model.XAttribute;
+import org.deckfour.xes.model.XAttributeTimestamp;
 import org.deckfour.xes.model.XEvent;
 import org.deckfour.xes.model.XTrace;
 
 import util.IdGenerator;
-import util.Util;
+import util.DateParser;
 
 /**
  * This class modifies traces with augmentation techniques that are inspired by research in the
@@ -19,6 +20,9 @@ import util.Util;
  *
  */
 public class TimeSeriesAugmentor extends Augmentor {
+	//Value for events without timestamp
+	public final static long NO_TIMESTAMP = Long.MIN_VALUE;
+	
 	public TimeSeriesAugmentor() {
 		
 	}
@@ -28,18 +32,25 @@ public class TimeSeriesAugmentor extends Augmentor {
 	 * 				< 0 delays a trace back in time
 	 */
 	public XTrace shiftTrace(XTrace trace, long shift) {
-		XTrace shiftedTrace = (XTrace) trace.clone();
+		return shiftTrace(trace, shift, DateParser.getDefault());
+	}
+	
+	/*
+	 * @param parser: parser of the timestamps stored as text, e.g. the parser of the log of the trace
+	 */
+	public XTrace shiftTrace(XTrace trace, long shift, DateParser parser) {
+		XTrace shiftedTrace = new SyntheticTrace(trace);
 		
 		String oldCaseId = trace.getAttributes().get("concept:name").toString();
 		XConceptExtension.instance().assignName(shiftedTrace, oldCaseId+"_syn"+IdGenerator.getNewId());
 		
-		Iterator<XEvent> it = shiftedTrace.iterator();
-		
-		while(it.hasNext()) {
-			XEvent currentEvent = it.next();
-			Date timestamp = Util.tryParse(currentEvent.getAttributes().get(XTimeExtension.KEY_TIMESTAMP).toString());
-			XTimeExtension.instance().assignTimestamp(currentEvent, timestamp.getTime()+shift);
+		long[] timestamps = getTimestamps(shiftedTrace, parser);
+		for(int i = 0; i < timestamps.length; i++) {
+			if(timestamps[i] != NO_TIMESTAMP) {
+				timestamps[i] = timestamps[i]+shift;
+			}
 		}
+		setTimestamps(shiftedTrace, timestamps, parser);
 		return shiftedTrace;
 	}
 	
@@ -47,19 +58,124 @@ public class TimeSeriesAugmentor extends Augmentor {
 	 * @param stretchFactor
 	 */
 	public XTrace stretchTrace(XTrace trace, double stretchFactor) {
-		XTrace stretchedTrace = (XTrace) trace.clone();
+		return stretchTrace(trace, stretchFactor, DateParser.getDefault());
+	}
+	
+	public XTrace stretchTrace(XTrace trace, double stretchFactor, DateParser parser) {
+		XTrace stretchedTrace = new SyntheticTrace(trace);
 		
 		String oldCaseId = trace.getAttributes().get("concept:name").toString();
 		XConceptExtension.instance().assignName(stretchedTrace, oldCaseId+"_syn"+IdGenerator.getNewId());
 		
-		for(int i = 0; i < stretchedTrace.size()-1; i++) {
-			Date firstTimestamp = Util.tryParse(trace.get(i).getAttributes().get(XTimeExtension.KEY_TIMESTAMP).toString());
-			Date secondTimestamp = Util.tryParse(trace.get(i+1).getAttributes().get(XTimeExtension.KEY_TIMESTAMP).toString());
-			long distance = (long) ((secondTimestamp.getTime()-firstTimestamp.getTime())*stretchFactor);
-			XTimeExtension.instance().assignTimestamp(stretchedTrace.get(i+1), Util.tryParse(stretchedTrace.get(i).getAttributes().get("time:timestamp").toString()).getTime()+distance);
+		long[] timestamps = getTimestamps(stretchedTrace, parser);
+		long[] stretched = timestamps.clone();
+		for(int i = 0; i < timestamps.length-1; i++) {
+			if(timestamps[i] != NO_TIMESTAMP && timestamps[i+1] != NO_TIMESTAMP) {
+				long distance = (long) ((timestamps[i+1]-timestamps[i])*stretchFactor);
+				stretched[i+1] = stretched[i]+distance;
+			}
 		}
+		setTimestamps(stretchedTrace, stretched, parser);
 		return stretchedTrace;
 	}
 	
-
+	/* Moves every event randomly by at most the given jitter. The order of the events is kept, 
+	 * an event is never moved before its predecessor.
+	 * @param maximalJitter: maximal shift of an event in milliseconds
+	 */
+	public XTrace jitterTrace(XTrace trace, long maximalJitter, SplittableRandom random) {
+		return jitterTrace(trace, maximalJitter, random, DateParser.getDefault());
+	}
+	
+	public XTrace jitterTrace(XTrace trace, long maximalJitter, SplittableRandom random, DateParser parser) {
+		XTrace jitteredTrace = new SyntheticTrace(trace);
+		
+		String oldCaseId = trace.getAttributes().get("concept:name").toString();
+		XConceptExtension.instance().assignName(jitteredTrace, oldCaseId+"_syn"+IdGenerator.getNewId());
+		
+		long[] timestamps = getTimestamps(jitteredTrace, parser);
+		long previous = Long.MIN_VALUE;
+		for(int i = 0; i < timestamps.length; i++) {
+			if(timestamps[i] != NO_TIMESTAMP) {
+				long jitter = maximalJitter > 0 ? random.nextLong(-maximalJitter, maximalJitter+1) : 0;
+				timestamps[i] = Math.max(previous, timestamps[i]+jitter);
+				previous = timestamps[i];
+			}
+		}
+		setTimestamps(jitteredTrace, timestamps, parser);
+		return jitteredTrace;
+	}
+	
+	/* Warps the time of a trace. The distances between the events are stretched by a factor that changes 
+	 * linearly from the start to the end of the trace, the factors at the start and the end are chosen randomly.
+	 * @param maximalWarp: the factors are between 1-maximalWarp and 1+maximalWarp
+	 */
+	public XTrace warpTrace(XTrace trace, double maximalWarp, SplittableRandom random) {
+		return warpTrace(trace, maximalWarp, random, DateParser.getDefault());
+	}
+	
+	public XTrace warpTrace(XTrace trace, double maximalWarp, SplittableRandom random, DateParser parser) {
+		XTrace warpedTrace = new SyntheticTrace(trace);
+		
+		String oldCaseId = trace.getAttributes().get("concept:name").toString();
+		XConceptExtension.instance().assignName(warpedTrace, oldCaseId+"_syn"+IdGenerator.getNewId());
+		
+		double startFactor = Math.max(0, 1+maximalWarp*(2*random.nextDouble()-1));
+		double endFactor = Math.max(0, 1+maximalWarp*(2*random.nextDouble()-1));
+		long[] timestamps = getTimestamps(warpedTrace, parser);
+		long[] warped = timestamps.clone();
+		for(int i = 0; i < timestamps.length-1; i++) {
+			if(timestamps[i] != NO_TIMESTAMP && timestamps[i+1] != NO_TIMESTAMP) {
+				double position = timestamps.length > 2 ? i/(double) (timestamps.length-2) : 0;
+				double factor = startFactor+(endFactor-startFactor)*position;
+				warped[i+1] = warped[i]+(long) ((timestamps[i+1]-timestamps[i])*factor);
+			}
+		}
+		setTimestamps(warpedTrace, warped, parser);
+		return warpedTrace;
+	}
+	
+	/*
+	 * Reads the timestamps of all events in milliseconds, NO_TIMESTAMP for events without timestamp
+	 */
+	public static long[] getTimestamps(XTrace trace) {
+		return getTimestamps(trace, DateParser.getDefault());
+	}
+	
+	public static long[] getTimestamps(XTrace trace, DateParser parser) {
+		long[] timestamps = new long[trace.size()];
+		int i = 0;
+		for(XEvent event : trace) {
+			XAttribute attribute = event.getAttributes().get(XTimeExtension.KEY_TIMESTAMP);
+			if(attribute instanceof XAttributeTimestamp) {
+				timestamps[i] = ((XAttributeTimestamp) attribute).getValueMillis();
+			}
+			else if(attribute != null) {
+				timestamps[i] = parser.parseMillis(attribute.toString());
+			}
+			else {
+				timestamps[i] = NO_TIMESTAMP;
+			}
+			i++;
+		}
+		return timestamps;
+	}
+	
+	/*
+	 * Writes the changed timestamps back into the events of a trace. The timestamp attributes are replaced, 
+	 * events of a synthetic trace are copied before, so that the source trace is not modified.
+	 */
+	public static void setTimestamps(XTrace trace, long[] timestamps) {
+		setTimestamps(trace, timestamps, DateParser.getDefault());
+	}
+	
+	public static void setTimestamps(XTrace trace, long[] timestamps, DateParser parser) {
+		long[] oldTimestamps = getTimestamps(trace, parser);
+		for(int i = 0; i < timestamps.length; i++) {
+			if(timestamps[i] != NO_TIMESTAMP && timestamps[i] != oldTimestamps[i]) {
+				XEvent event = trace instanceof SyntheticTrace ? ((SyntheticTrace) trace).getWritableEvent(i) : trace.get(i);
+				XTimeExtension.instance().assignTimestamp(event, timestamps[i]);
+			}
+		}
+	}
 }
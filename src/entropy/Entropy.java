@@ -1,6 +1,8 @@
 package entropy;
 
 import org.deckfour.xes.model.XLog;
+
+import parser.IntLog;
 /**
  * Interface for different entropy measures. Measures are used to 
  * determine the information gain in an event log. This should enable 
@@ -9,4 +11,5 @@ import org.deckfour.xes.model.XLog;
  */
 public interface Entropy {
 	public double calculate(XLog log);
+	public double calculate(IntLog log);
 }
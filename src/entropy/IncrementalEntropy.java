@@ -0,0 +1,20 @@
+package entropy;
+
+import org.deckfour.xes.model.XTrace;
+
+import parser.IntLog;
+/**
+ * Entropy measure that is updated as traces are added or removed. Adding or removing a trace costs time
+ * proportional to the length of the trace, so that the entropy of logs that differ only in a few traces
+ * (e.g. the reduction levels of a log) can be computed from the difference.
+ * calculate(log) resets the measure to the given log.
+ * @author Martin Kaeppel
+ */
+public interface IncrementalEntropy extends Entropy {
+	public void addTrace(XTrace trace);
+	public boolean removeTrace(XTrace trace);
+	public void addTrace(IntLog log, int trace);
+	public boolean removeTrace(IntLog log, int trace);
+	public double getValue();
+	public void clear();
+}
@@ -0,0 +1,101 @@
+package entropy;
+
+import org.deckfour.xes.model.XLog;
+import org.deckfour.xes.model.XTrace;
+
+import parser.Dictionary;
+import parser.IntLog;
+import parser.IntSequence;
+import parser.PrefixTree;
+
+/**
+ * Incremental calculation of the prefix entropy. The prefixes of the added traces are counted in a prefix tree,
+ * that keeps the entropy up to date when traces are added or removed.
+ * @author Martin Kaeppel
+ */
+public class IncrementalPrefixEntropy implements IncrementalEntropy {
+	private boolean lifecycle;
+	private PrefixTree tree;
+	
+	public IncrementalPrefixEntropy() {
+		this(false);
+	}
+	
+	/**
+	 * @param lifecycle		If true the activities are concatenated with the lifecycle transition
+	 */
+	public IncrementalPrefixEntropy(boolean lifecycle) {
+		this.lifecycle = lifecycle;
+		this.tree = new PrefixTree(new Dictionary());
+	}
+	
+	public double calculate(XLog log) {
+		clear();
+		for(XTrace trace : log) {
+			addTrace(trace);
+		}
+		return getValue();
+	}
+	
+	public double calculate(IntLog log) {
+		clear();
+		for(int t = 0; t < log.getNumberOfTraces(); t++) {
+			addTrace(log, t);
+		}
+		return getValue();
+	}
+	
+	public void addTrace(XTrace trace) {
+		tree.addTrace(trace, lifecycle);
+	}
+	
+	public boolean removeTrace(XTrace trace) {
+		return tree.removeTrace(trace, lifecycle);
+	}
+	
+	public void addTrace(IntLog log, int trace) {
+		tree.addTrace(getSequence(log, trace, true));
+	}
+	
+	public boolean removeTrace(IntLog log, int trace) {
+		IntSequence sequence = getSequence(log, trace, false);
+		return sequence != null && tree.removeTrace(sequence);
+	}
+	
+	public double getValue() {
+		return tree.getEntropy();
+	}
+	
+	public void clear() {
+		tree = new PrefixTree(new Dictionary());
+	}
+	
+	public PrefixTree getPrefixTree() {
+		return tree;
+	}
+	
+	/**
+	 * Translates the activities of a trace into the ids of the dictionary of the prefix tree
+	 * @param intern	If false unknown activities are not added to the dictionary and null is returned
+	 */
+	private IntSequence getSequence(IntLog log, int trace, boolean intern) {
+		Dictionary logDictionary = log.getActivityDictionary(lifecycle);
+		Dictionary dictionary = tree.getDictionary();
+		int[] sequence = new int[log.getTraceLength(trace)];
+		int start = log.getTraceStart(trace);
+		for(int i = 0; i < sequence.length; i++) {
+			String activity = logDictionary.get(log.getActivity(start+i, lifecycle));
+			if(intern == true) {
+				sequence[i] = dictionary.intern(activity);
+			}
+			else {
+				sequence[i] = dictionary.getId(activity);
+				if(activity != null && sequence[i] == Dictionary.NO_VALUE) {
+					return null;
+				}
+			}
+		}
+		return new IntSequence(sequence);
+	}
+
+}
@@ -0,0 +1,177 @@
+package entropy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.deckfour.xes.model.XEvent;
+import org.deckfour.xes.model.XLog;
+import org.deckfour.xes.model.XTrace;
+
+import parser.Dictionary;
+import parser.IntLog;
+import parser.IntSequence;
+import parser.VariantIndex;
+
+/**
+ * Incremental calculation of the Shannon Entropy of the trace variants. The number of traces of each variant
+ * and the sum of c*log(c) over these counts are kept up to date, with N traces the entropy is log(N) - sum(c*log(c))/N.
+ * @author Martin Kaeppel
+ */
+public class IncrementalShannonEntropy implements IncrementalEntropy {
+	private boolean lifecycle;
+	private Dictionary dictionary = new Dictionary();
+	private Map<IntSequence, Integer> variants = new HashMap<IntSequence, Integer>();
+	private int[] counts = new int[16];
+	private int numberOfTraces;
+	//Sum of c*log(c) over the counts c of all variants
+	private double countLogCount;
+	
+	public IncrementalShannonEntropy() {
+		this(false);
+	}
+	
+	/**
+	 * @param lifecycle		If true the activities are concatenated with the lifecycle transition
+	 */
+	public IncrementalShannonEntropy(boolean lifecycle) {
+		this.lifecycle = lifecycle;
+	}
+	
+	public double calculate(XLog log) {
+		clear();
+		for(XTrace trace : log) {
+			addTrace(trace);
+		}
+		return getValue();
+	}
+	
+	public double calculate(IntLog log) {
+		clear();
+		for(int t = 0; t < log.getNumberOfTraces(); t++) {
+			addTrace(log, t);
+		}
+		return getValue();
+	}
+	
+	public void addTrace(XTrace trace) {
+		add(getSequence(trace, true));
+	}
+	
+	public boolean removeTrace(XTrace trace) {
+		IntSequence sequence = getSequence(trace, false);
+		return sequence != null && remove(sequence);
+	}
+	
+	public void addTrace(IntLog log, int trace) {
+		add(getSequence(log, trace, true));
+	}
+	
+	public boolean removeTrace(IntLog log, int trace) {
+		IntSequence sequence = getSequence(log, trace, false);
+		return sequence != null && remove(sequence);
+	}
+	
+	public double getValue() {
+		if(numberOfTraces == 0) {
+			return 0;
+		}
+		return Math.log(numberOfTraces)-countLogCount/numberOfTraces;
+	}
+	
+	public void clear() {
+		dictionary = new Dictionary();
+		variants.clear();
+		counts = new int[16];
+		numberOfTraces = 0;
+		countLogCount = 0;
+	}
+	
+	/**
+	 * Returns the number of variants that occur in the added traces
+	 */
+	public int getNumberOfVariants() {
+		int number = 0;
+		for(Integer variant : variants.values()) {
+			if(counts[variant] > 0) {
+				number++;
+			}
+		}
+		return number;
+	}
+	
+	private void add(IntSequence sequence) {
+		Integer variant = variants.get(sequence);
+		if(variant == null) {
+			variant = variants.size();
+			variants.put(sequence, variant);
+			if(variant == counts.length) {
+				counts = Arrays.copyOf(counts, 2*counts.length);
+			}
+		}
+		int count = counts[variant];
+		countLogCount = countLogCount + xLogX(count+1) - xLogX(count);
+		counts[variant] = count+1;
+		numberOfTraces++;
+	}
+	
+	private boolean remove(IntSequence sequence) {
+		Integer variant = variants.get(sequence);
+		if(variant == null || counts[variant] == 0) {
+			return false;
+		}
+		int count = counts[variant];
+		countLogCount = countLogCount + xLogX(count-1) - xLogX(count);
+		counts[variant] = count-1;
+		numberOfTraces--;
+		return true;
+	}
+	
+	/**
+	 * Encodes the activities of a trace
+	 * @param intern	If false unknown activities are not added to the dictionary and null is returned
+	 */
+	private IntSequence getSequence(XTrace trace, boolean intern) {
+		List<String> activities = new ArrayList<String>(trace.size());
+		for(XEvent event : trace) {
+			activities.add(VariantIndex.getActivity(event, lifecycle));
+		}
+		return encode(activities, intern);
+	}
+	
+	private IntSequence getSequence(IntLog log, int trace, boolean intern) {
+		Dictionary logDictionary = log.getActivityDictionary(lifecycle);
+		List<String> activities = new ArrayList<String>(log.getTraceLength(trace));
+		for(int e = log.getTraceStart(trace); e < log.getTraceEnd(trace); e++) {
+			activities.add(logDictionary.get(log.getActivity(e, lifecycle)));
+		}
+		return encode(activities, intern);
+	}
+	
+	private IntSequence encode(List<String> activities, boolean intern) {
+		int[] sequence = new int[activities.size()];
+		for(int i = 0; i < sequence.length; i++) {
+			String activity = activities.get(i);
+			if(intern == true) {
+				sequence[i] = dictionary.intern(activity);
+			}
+			else {
+				sequence[i] = dictionary.getId(activity);
+				if(activity != null && sequence[i] == Dictionary.NO_VALUE) {
+					return null;
+				}
+			}
+		}
+		return new IntSequence(sequence);
+	}
+	
+	private static double xLogX(int x) {
+		if(x <= 1) {
+			return 0;
+		}
+		return x*Math.log(x);
+	}
+
+}
@@ -1,19 +1,9 @@
 package entropy;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.Set;
-
-import org.deckfour.xes.extension.std.XConceptExtension;
-import org.deckfour.xes.extension.std.XLifecycleExtension;
-import org.deckfour.xes.model.XEvent;
 import org.deckfour.xes.model.XLog;
-import org.deckfour.xes.model.XTrace;
 
-import parser.classifier.Prefix;
-import parser.Parser;
+import parser.IntLog;
+import parser.PrefixTree;
 /**
  * This class implements the interface Entropy and calculates the prefix entropy of an event log
  * 
@@ -26,91 +16,25 @@ public class PrefixEntropy implements Entropy {
 	}
 	
 	public double calculate(XLog log) {
-		double prefixEntropy = 0;
-		Parser parser = new Parser();
-		int numberOfEvents = parser.getNumberOfEvents(log);
-				
-		Set<Prefix> prefixes = parser.getPrefixes(log, false);
-		
-		Map<Prefix, Integer> map = new HashMap<Prefix, Integer>();
-		for(Prefix pre : prefixes) {
-			map.put(pre, 0);
-		}
-		
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			XTrace currentTrace = logIterator.next();
-			Iterator<XEvent> traceIterator = currentTrace.iterator();
-			Prefix p = new Prefix();
-			while(traceIterator.hasNext()) {
-				XEvent currentEvent = traceIterator.next();
-				
-				String activity = currentEvent.getAttributes().get(XConceptExtension.KEY_NAME).toString();
-				p.append(activity);		
-				
-				
-				Prefix nextPrefix = new Prefix();
-				nextPrefix.setPrefix(new ArrayList<String>(p.getPrefix()));
-				
-				prefixes.add(nextPrefix);
-				map.put(nextPrefix, map.get(nextPrefix)+1);
-			}	
-		}
-		
-		for(Prefix p : map.keySet()) {
-			double prefixLikelihood = map.get(p)/(numberOfEvents*1.0);
-			prefixEntropy = prefixEntropy+prefixLikelihood*Math.log(prefixLikelihood);
-		}
-				
-		return prefixEntropy*(-1);
+		return calculateWithLifefycle(log, false);
+	}
+	
+	public double calculate(IntLog log) {
+		return calculateWithLifefycle(log, false);
 	}
 	
+	/**
+	 * Calculates the prefix entropy of a log in columnar representation. The prefixes are counted in a prefix tree.
+	 */
+	public double calculateWithLifefycle(IntLog log, boolean lifecycle) {
+		return PrefixTree.build(log, lifecycle).getEntropy();
+	}
 	
+	/**
+	 * Calculates the prefix entropy of a log. The prefixes are counted in a prefix tree in a single pass over the log.
+	 */
 	public double calculateWithLifefycle(XLog log, boolean lifecycle) {
-		double prefixEntropy = 0;
-		Parser parser = new Parser();
-		int numberOfEvents = parser.getNumberOfEvents(log);
-				
-		Set<Prefix> prefixes = parser.getPrefixes(log, lifecycle);
-		
-		Map<Prefix, Integer> map = new HashMap<Prefix, Integer>();
-		for(Prefix pre : prefixes) {
-			map.put(pre, 0);
-		}
-		
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			XTrace currentTrace = logIterator.next();
-			Iterator<XEvent> traceIterator = currentTrace.iterator();
-			Prefix p = new Prefix();
-			while(traceIterator.hasNext()) {
-				XEvent currentEvent = traceIterator.next();
-				
-				
-				if(lifecycle == true) {
-					String transition = currentEvent.getAttributes().get(XLifecycleExtension.KEY_TRANSITION).toString();
-					String activity = currentEvent.getAttributes().get(XConceptExtension.KEY_NAME).toString();
-					p.append(activity+"-"+transition);
-				}
-				else {
-					String activity = currentEvent.getAttributes().get(XConceptExtension.KEY_NAME).toString();
-					p.append(activity);		
-				}
-				
-				Prefix nextPrefix = new Prefix();
-				nextPrefix.setPrefix(new ArrayList<String>(p.getPrefix()));
-				
-				prefixes.add(nextPrefix);
-				map.put(nextPrefix, map.get(nextPrefix)+1);
-			}	
-		}
-		
-		for(Prefix p : map.keySet()) {
-			double prefixLikelihood = map.get(p)/(numberOfEvents*1.0);
-			prefixEntropy = prefixEntropy+prefixLikelihood*Math.log(prefixLikelihood);
-		}
-				
-		return prefixEntropy*(-1);
+		return PrefixTree.build(log, lifecycle).getEntropy();
 	}
 	
 	
@@ -1,9 +1,12 @@
 package entropy;
 
+import java.util.HashMap;
 import java.util.Map;
 
 import org.deckfour.xes.model.XLog;
 
+import parser.IntLog;
+import parser.IntSequence;
 import parser.Parser;
 import parser.TraceVariant;
 
@@ -32,6 +35,21 @@ public class ShannonEntropy implements Entropy {
 		return shannonIndex*(-1);
 	}
 	
+	public double calculate(IntLog log) {
+		double shannonIndex = 0;
+		double individuals = log.getNumberOfTraces();
+		
+		Map<IntSequence, Integer> map = new HashMap<IntSequence, Integer>();
+		for(int t = 0; t < log.getNumberOfTraces(); t++) {
+			map.merge(log.getActivitySequence(t, false), 1, Integer::sum);
+		}
+		for(Integer count : map.values()) {
+			shannonIndex = shannonIndex+((count/individuals)*Math.log(count/individuals));
+		}
+		
+		return shannonIndex*(-1);
+	}
+	
 	public double getMaximalShannonIndex(XLog log) {
 		Parser p = new Parser();
 		return Math.log(p.getTraceVariants(log).size());
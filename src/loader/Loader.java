@@ -1,20 +1,23 @@
 package loader;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.zip.GZIPInputStream;
 
 import org.apache.commons.io.FilenameUtils;
 import org.deckfour.xes.in.XesXmlParser;
 import org.deckfour.xes.model.XLog;
-
-import com.google.common.io.Files;
+import org.deckfour.xes.model.XTrace;
 
 import net.lingala.zip4j.ZipFile;
+import net.lingala.zip4j.model.FileHeader;
+
+import parser.IntLog;
 
 
 /**
@@ -25,6 +28,7 @@ import net.lingala.zip4j.ZipFile;
  */
 public class Loader {
 	private XesXmlParser parser;
+	private LogCache cache;
 	private static Loader instance;
 	
 	//Supported file extensions
@@ -35,15 +39,19 @@ public class Loader {
 	public final static String GZ = "gz";
 	public final static String XML = "xml";
 	
+	//Size of the buffer for reading the files
+	private final static int BUFFER_SIZE = 1 << 16;
+	
 	/**
 	 * 
 	 * @param path	Location of the log file or the archive that contains the log file
 	 */
 	private Loader() {
 		parser = new XesXmlParser();
+		cache = new LogCache();
 	}
 	
-	public static Loader getInstance() {
+	public static synchronized Loader getInstance() {
 		if(Loader.instance == null) {
 			Loader.instance = new Loader();
 		}
@@ -51,160 +59,169 @@ public class Loader {
 	}
 	
 	/**
-	 * Extracts a XLog from the file that contains the process log
+	 * Extracts a XLog from the file that contains the process log. Archives are decompressed on the fly while
+	 * parsing, no files are extracted to the disk. If the cache contains a snapshot of the unchanged file, the
+	 * snapshot is read instead of parsing the file.
 	 * @return extracted XLog or if the file contains more than one or no process log null
 	 */
 	public XLog getProcessLog(String path) {
 		File file = new File(path);
-		
-		//Extracts if necessary the log file from an archive
-		File logFile = extractProcessLogFromArchive(file);
-		
-		if(logFile != null) {
-			List<XLog> list = new ArrayList<XLog>();
-			if(parser.canParse(logFile)) {
-				try {
-					list = parser.parse(logFile);
-					if(list.size() > 1 || list.size() == 0) {
-						System.err.println("The file contains no or more than one process log!");
-						return null;
-					}
-					else {
-						return list.get(0);
-					}
-				}
-				catch(Exception e) {
-					System.err.println(e);
-				}
+		if(cache != null && file.isFile()) {
+			XLog log = cache.get(file);
+			if(log != null) {
+				return log;
+			}
+			log = parseProcessLog(file);
+			if(log != null) {
+				cache.put(file, log);
+			}
+			return log;
+		}
+		return parseProcessLog(file);
+	}
+	
+	private XLog parseProcessLog(File file) {
+		InputStream input = null;
+		try {
+			input = openProcessLog(file);
+			if(input == null) {
+				return null;
+			}
+			List<XLog> list = parser.parse(input);
+			if(list.size() > 1 || list.size() == 0) {
+				System.err.println("The file contains no or more than one process log!");
+				return null;
 			}
 			else {
-				System.err.println("No valid log!");
+				return list.get(0);
 			}
-			return null;
-			
 		}
-		else {
-			System.err.println("File Type not supported");
-			return null;
+		catch(Exception e) {
+			System.err.println(e);
 		}
+		finally {
+			close(input);
+		}
+		return null;
 	}
-		
+	
 	/**
-	 * Extracts if necessary the process log from an archive file
+	 * Sets the cache for the parsed logs
+	 * @param cache		cache or null to disable the caching
 	 */
-	private File extractProcessLogFromArchive(File file) {
-		String fileExtension = FilenameUtils.getExtension(file.getName()); 
-		if(XES.equals(fileExtension) || CSV.equals(fileExtension) || MXML.equals(fileExtension)) {
-			return file;
-		}
-		else {
-			if(ZIP.equals(fileExtension)) {
-				return extractZip(file);
-			}
-			else {
-				if(GZ.equals(fileExtension)) {
-					return extractGz(file);
-				}
-				else {
-					if(XML.equals(fileExtension)) {
-						return extractXML(file);
-					}
-					else {
-						return null;	
-					}
-				}
-			}
-		}		
+	public void setCache(LogCache cache) {
+		this.cache = cache;
 	}
 	
-	private File extractXML(File file) {
-		String[] splitted = file.getName().split("\\.");
-		if(splitted.length == 3) {
-			String extension = splitted[1];
-			if(extension.equals(XES)) {
-				File extractedFile = new File(file.getParent()+"\\"+splitted[0]+"."+extension);
-				try {
-					Files.copy(file, extractedFile);
-				} catch (IOException e) {
-					e.printStackTrace();
-				}
-				
-				return extractedFile;
+	public LogCache getCache() {
+		return cache;
+	}
+	
+	private void close(InputStream input) {
+		if(input != null) {
+			try {
+				input.close();
 			}
-			else {
-				System.err.println("No XES File in Archive!");
+			catch(IOException e) {
+				e.printStackTrace();
 			}
 		}
-		else {
-			System.err.println("Unknown Content in File");
-		}
-		return null;
 	}
+		
 	/**
-	 * Extracts a process log from a zip-archive
+	 * Opens the process log as a stream of traces, the log is not materialized in memory. Supports
+	 * xes files as well as xes files in zip and gz archives and xes.xml files.
 	 * 
-	 * @return	the extracted process log or null if the archive contains more than one file
+	 * @return reader that delivers the traces one after another or null if the file cannot be read
 	 */
-	private File extractZip(File file) {
+	public XesStreamReader streamProcessLog(String path) {
 		try {
-			ZipFile archive = new ZipFile(file);
-			if(archive.getFileHeaders().size() != 1) {
-				System.err.print("The archive contains no or more than one file!");
-				return null;
-			}
-			else {
-				String name = archive.getFileHeaders().get(0).getFileName();
-				archive.extractAll("data");
-				File unzippedFile = new File("data\\"+name);
-				return unzippedFile;
+			InputStream input = openProcessLog(new File(path));
+			if(input != null) {
+				return new XesStreamReader(input);
 			}
 		}
 		catch(Exception e) {
-			e.printStackTrace();
+			System.err.println(e);
 		}
 		return null;
-		
 	}
 	
 	/**
-	 * Extracts a process log from a gz-archive
+	 * Delivers the traces of the process log one after another to the given handler
 	 * 
-	 * @return	the extracted process log or null if the archive contains more than one file
+	 * @return the log without traces (extensions, global attributes, classifiers, attributes) or null if the file cannot be read
 	 */
-	private File extractGz(File file) {
-		byte[] buffer = new byte[1024];
-		try {
+	public XLog streamProcessLog(String path, Consumer<XTrace> handler) {
+		XesStreamReader reader = streamProcessLog(path);
+		if(reader != null) {
+			try {
+				reader.forEachRemainingTrace(handler);
+				return reader.getLogHeader();
+			}
+			catch(Exception e) {
+				System.err.println(e);
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Opens a stream on the xes content of the file, archives are decompressed on the fly
+	 * @return stream or null if the file does not contain a xes log
+	 */
+	private InputStream openProcessLog(File file) throws IOException {
+		String fileExtension = FilenameUtils.getExtension(file.getName());
+		if(XES.equals(fileExtension)) {
+			return new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+		}
+		else if(GZ.equals(fileExtension) || XML.equals(fileExtension)) {
 			String[] splitted = file.getName().split("\\.");
-			if(splitted.length == 3) {
-				String extension = splitted[1];
-				if(extension.equals(XES)) {
-					GZIPInputStream gzis = new GZIPInputStream(new FileInputStream(file));
-					File unzippedFile = new File(file.getParent()+"\\"+splitted[0]+"."+extension);
-					FileOutputStream out = new FileOutputStream(unzippedFile);
-					
-					int len;
-			        while ((len = gzis.read(buffer)) > 0) {
-			        	out.write(buffer, 0, len);
-			        }
-			 
-			        gzis.close();
-			    	out.close();
-			    	return unzippedFile;
-				}
-				else {
-					System.err.println("No XES File in Archive!");
-					return null;
-				}
+			if(splitted.length != 3) {
+				System.err.println("Unknown Content in File");
+				return null;
 			}
-			else {
-				System.err.println("Unknown Content in Archive!");
+			if(!XES.equals(splitted[1])) {
+				System.err.println("No XES File in Archive!");
 				return null;
 			}
+			if(GZ.equals(fileExtension)) {
+				return new BufferedInputStream(new GZIPInputStream(new FileInputStream(file), BUFFER_SIZE), BUFFER_SIZE);
+			}
+			return new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
 		}
-		catch(IOException e) {
-			e.printStackTrace();
+		else if(ZIP.equals(fileExtension)) {
+			ZipFile archive = new ZipFile(file);
+			if(archive.getFileHeaders().size() != 1) {
+				System.err.println("The archive contains no or more than one file!");
+				return null;
+			}
+			FileHeader entry = archive.getFileHeaders().get(0);
+			if(!XES.equals(FilenameUtils.getExtension(entry.getFileName()))) {
+				System.err.println("No XES File in Archive!");
+				return null;
+			}
+			return new BufferedInputStream(archive.getInputStream(entry), BUFFER_SIZE);
+		}
+		else if(CSV.equals(fileExtension) || MXML.equals(fileExtension)) {
+			System.err.println("No valid log!");
+			return null;
+		}
+		else {
+			System.err.println("File Type not supported");
+			return null;
+		}
+	}
+	
+	/**
+	 * Extracts the process log and converts it into the columnar representation
+	 * @return columnar representation of the process log or null if the log cannot be extracted
+	 */
+	public IntLog getIntLog(String path) {
+		XLog log = getProcessLog(path);
+		if(log != null) {
+			return IntLog.fromXLog(log);
 		}
 		return null;
-		
 	}
-}
+}
\ No newline at end of file
@@ -0,0 +1,150 @@
+package loader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.deckfour.xes.model.XLog;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * Directory of binary snapshots of parsed event logs. A snapshot is identified by the canonical path of the
+ * source file and is only used as long as the size and modification time of the source file are unchanged.
+ * If the snapshots exceed the size limit of the cache, the least recently used snapshots are deleted.
+ *
+ * @author Martin Kaeppel
+ */
+public class LogCache {
+	private final static String SUFFIX = ".snapshot";
+	//Default size limit of the cache in bytes
+	public final static long DEFAULT_SIZE_LIMIT = 4L << 30;
+
+	private File directory;
+	private long sizeLimit;
+
+	/**
+	 * Creates a cache in the temporary directory with the default size limit
+	 */
+	public LogCache() {
+		this(new File(System.getProperty("java.io.tmpdir"), "logcache"), DEFAULT_SIZE_LIMIT);
+	}
+
+	/**
+	 * @param directory		Directory of the snapshots
+	 * @param sizeLimit		Maximal size of all snapshots in bytes
+	 */
+	public LogCache(File directory, long sizeLimit) {
+		this.directory = directory;
+		this.sizeLimit = sizeLimit;
+	}
+
+	/**
+	 * Returns the cached log of the given file
+	 * @param source	Log file
+	 * @return cached log or null if there is no valid snapshot of the file
+	 */
+	public XLog get(File source) {
+		try {
+			File snapshot = getSnapshotFile(source);
+			if(snapshot.exists() && LogSnapshot.isValid(snapshot, source)) {
+				XLog log = LogSnapshot.read(snapshot);
+				//The modification time of the snapshot is used for the eviction
+				snapshot.setLastModified(System.currentTimeMillis());
+				return log;
+			}
+		}
+		catch(Exception e) {
+			System.err.println("Cannot read snapshot of "+source+": "+e);
+		}
+		return null;
+	}
+
+	/**
+	 * Stores a snapshot of a log and evicts the least recently used snapshots if the size limit is exceeded
+	 * @param source	Log file
+	 * @param log		Log parsed from the file
+	 */
+	public void put(File source, XLog log) {
+		try {
+			if(!directory.exists()) {
+				directory.mkdirs();
+			}
+			File snapshot = getSnapshotFile(source);
+			//The snapshot is written into a temporary file first, so that concurrent readers never see an incomplete snapshot
+			File temporary = File.createTempFile("snapshot", ".tmp", directory);
+			try {
+				LogSnapshot.write(log, source, temporary);
+				if(temporary.length() > Integer.MAX_VALUE || temporary.length() > sizeLimit) {
+					return;
+				}
+				Files.move(temporary.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			finally {
+				temporary.delete();
+			}
+			evict(snapshot);
+		}
+		catch(IOException e) {
+			System.err.println("Cannot write snapshot of "+source+": "+e);
+		}
+	}
+
+	/**
+	 * Deletes the least recently used snapshots until the size limit is kept
+	 * @param keep	Snapshot that is not deleted
+	 */
+	private void evict(File keep) {
+		File[] snapshots = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+		if(snapshots == null) {
+			return;
+		}
+		long size = 0;
+		for(File snapshot : snapshots) {
+			size = size + snapshot.length();
+		}
+		if(size <= sizeLimit) {
+			return;
+		}
+		Arrays.sort(snapshots, Comparator.comparingLong(File::lastModified));
+		for(File snapshot : snapshots) {
+			if(size <= sizeLimit) {
+				break;
+			}
+			long length = snapshot.length();
+			if(!snapshot.equals(keep) && snapshot.delete()) {
+				size = size - length;
+			}
+		}
+	}
+
+	/**
+	 * Deletes all snapshots of the cache
+	 */
+	public void clear() {
+		File[] snapshots = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+		if(snapshots != null) {
+			for(File snapshot : snapshots) {
+				snapshot.delete();
+			}
+		}
+	}
+
+	private File getSnapshotFile(File source) throws IOException {
+		String name = Hashing.sha256().hashString(source.getCanonicalPath(), StandardCharsets.UTF_8).toString();
+		return new File(directory, name+SUFFIX);
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	public long getSizeLimit() {
+		return sizeLimit;
+	}
+
+}
@@ -0,0 +1,427 @@
+package loader;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.deckfour.xes.classification.XEventAttributeClassifier;
+import org.deckfour.xes.classification.XEventClassifier;
+import org.deckfour.xes.extension.XExtension;
+import org.deckfour.xes.extension.XExtensionManager;
+import org.deckfour.xes.factory.XFactory;
+import org.deckfour.xes.factory.XFactoryRegistry;
+import org.deckfour.xes.id.XID;
+import org.deckfour.xes.model.XAttributable;
+import org.deckfour.xes.model.XAttribute;
+import org.deckfour.xes.model.XAttributeBoolean;
+import org.deckfour.xes.model.XAttributeContainer;
+import org.deckfour.xes.model.XAttributeContinuous;
+import org.deckfour.xes.model.XAttributeDiscrete;
+import org.deckfour.xes.model.XAttributeID;
+import org.deckfour.xes.model.XAttributeList;
+import org.deckfour.xes.model.XAttributeMap;
+import org.deckfour.xes.model.XAttributeTimestamp;
+import org.deckfour.xes.model.XEvent;
+import org.deckfour.xes.model.XLog;
+import org.deckfour.xes.model.XTrace;
+
+/**
+ * Binary snapshot of a parsed event log. All strings (attribute keys, literal values, extension uris) are stored
+ * once in a string table and referenced by their index, the remaining values are stored in binary form.
+ * Snapshots are read via a memory mapped file, which is much faster than parsing the xes file again.
+ *
+ * The header of a snapshot contains the path, size and modification time of the source file, which are used
+ * to detect outdated snapshots.
+ *
+ * @author Martin Kaeppel
+ */
+public class LogSnapshot {
+	private final static int MAGIC = 0x584C5353;
+	private final static int VERSION = 1;
+
+	//Attribute types
+	private final static byte LITERAL = 0;
+	private final static byte TIMESTAMP = 1;
+	private final static byte DISCRETE = 2;
+	private final static byte CONTINUOUS = 3;
+	private final static byte BOOLEAN = 4;
+	private final static byte ID = 5;
+	private final static byte LIST = 6;
+	private final static byte CONTAINER = 7;
+
+	private final static int NO_STRING = -1;
+
+	private LogSnapshot() {
+
+	}
+
+	/**
+	 * Writes a snapshot of the log
+	 * @param log
+	 * @param source	File from which the log was parsed
+	 * @param target	File of the snapshot
+	 */
+	public static void write(XLog log, File source, File target) throws IOException {
+		StringTable strings = new StringTable();
+		FileOutputStream stream = new FileOutputStream(target);
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+		long stringTableOffset;
+		try {
+			byte[] path = source.getCanonicalPath().getBytes(StandardCharsets.UTF_8);
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(path.length);
+			out.write(path);
+			out.writeLong(source.length());
+			out.writeLong(source.lastModified());
+			//Placeholder for the position of the string table
+			out.writeLong(0);
+
+			out.writeInt(log.getExtensions().size());
+			for(XExtension extension : log.getExtensions()) {
+				out.writeInt(strings.id(extension.getUri().toString()));
+			}
+			writeAttributes(out, strings, log.getAttributes().values());
+			writeAttributes(out, strings, log.getGlobalTraceAttributes());
+			writeAttributes(out, strings, log.getGlobalEventAttributes());
+
+			out.writeInt(log.getClassifiers().size());
+			for(XEventClassifier classifier : log.getClassifiers()) {
+				out.writeInt(strings.id(classifier.name()));
+				String[] keys = classifier.getDefiningAttributeKeys();
+				out.writeInt(keys.length);
+				for(String key : keys) {
+					out.writeInt(strings.id(key));
+				}
+			}
+
+			out.writeInt(log.size());
+			for(XTrace trace : log) {
+				writeAttributes(out, strings, trace.getAttributes().values());
+				out.writeInt(trace.size());
+				for(XEvent event : trace) {
+					writeAttributes(out, strings, event.getAttributes().values());
+				}
+			}
+			out.flush();
+
+			//The string table is written behind the content, because it is complete only after the content is written
+			stringTableOffset = stream.getChannel().position();
+			out.writeInt(strings.size());
+			for(String value : strings.values) {
+				byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			}
+		}
+		finally {
+			out.close();
+		}
+
+		RandomAccessFile file = new RandomAccessFile(target, "rw");
+		try {
+			file.seek(getHeaderLength(source)-8);
+			file.writeLong(stringTableOffset);
+		}
+		finally {
+			file.close();
+		}
+	}
+
+	private static int getHeaderLength(File source) throws IOException {
+		return 4+4+4+source.getCanonicalPath().getBytes(StandardCharsets.UTF_8).length+8+8+8;
+	}
+
+	private static void writeAttributes(DataOutputStream out, StringTable strings, Collection<XAttribute> attributes) throws IOException {
+		out.writeInt(attributes.size());
+		for(XAttribute attribute : attributes) {
+			writeAttribute(out, strings, attribute);
+		}
+	}
+
+	private static void writeAttribute(DataOutputStream out, StringTable strings, XAttribute attribute) throws IOException {
+		if(attribute instanceof XAttributeTimestamp) {
+			out.writeByte(TIMESTAMP);
+			writeKey(out, strings, attribute);
+			out.writeLong(((XAttributeTimestamp) attribute).getValueMillis());
+		}
+		else if(attribute instanceof XAttributeDiscrete) {
+			out.writeByte(DISCRETE);
+			writeKey(out, strings, attribute);
+			out.writeLong(((XAttributeDiscrete) attribute).getValue());
+		}
+		else if(attribute instanceof XAttributeContinuous) {
+			out.writeByte(CONTINUOUS);
+			writeKey(out, strings, attribute);
+			out.writeDouble(((XAttributeContinuous) attribute).getValue());
+		}
+		else if(attribute instanceof XAttributeBoolean) {
+			out.writeByte(BOOLEAN);
+			writeKey(out, strings, attribute);
+			out.writeBoolean(((XAttributeBoolean) attribute).getValue());
+		}
+		else if(attribute instanceof XAttributeID) {
+			out.writeByte(ID);
+			writeKey(out, strings, attribute);
+			out.writeInt(strings.id(((XAttributeID) attribute).getValue().toString()));
+		}
+		else if(attribute instanceof XAttributeList) {
+			out.writeByte(LIST);
+			writeKey(out, strings, attribute);
+			writeAttributes(out, strings, ((XAttributeList) attribute).getCollection());
+		}
+		else if(attribute instanceof XAttributeContainer) {
+			//The elements of a container are stored as its attributes
+			out.writeByte(CONTAINER);
+			writeKey(out, strings, attribute);
+		}
+		else {
+			out.writeByte(LITERAL);
+			writeKey(out, strings, attribute);
+			out.writeInt(strings.id(attribute.toString()));
+		}
+		//Meta attributes
+		if(attribute.hasAttributes()) {
+			writeAttributes(out, strings, attribute.getAttributes().values());
+		}
+		else {
+			out.writeInt(0);
+		}
+	}
+
+	private static void writeKey(DataOutputStream out, StringTable strings, XAttribute attribute) throws IOException {
+		out.writeInt(strings.id(attribute.getKey()));
+		if(attribute.getExtension() != null) {
+			out.writeInt(strings.id(attribute.getExtension().getUri().toString()));
+		}
+		else {
+			out.writeInt(NO_STRING);
+		}
+	}
+
+	/**
+	 * Checks whether the snapshot was created from the current version of the source file
+	 */
+	public static boolean isValid(File snapshot, File source) {
+		try {
+			RandomAccessFile file = new RandomAccessFile(snapshot, "r");
+			try {
+				if(file.readInt() != MAGIC || file.readInt() != VERSION) {
+					return false;
+				}
+				byte[] path = new byte[file.readInt()];
+				file.readFully(path);
+				return new String(path, StandardCharsets.UTF_8).equals(source.getCanonicalPath()) && file.readLong() == source.length() && file.readLong() == source.lastModified();
+			}
+			finally {
+				file.close();
+			}
+		}
+		catch(IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Reads a log from a snapshot. Snapshots larger than 2 GB cannot be mapped and are not supported.
+	 * @param snapshot
+	 * @return the log or null if the file is not a valid snapshot
+	 */
+	public static XLog read(File snapshot) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(snapshot, "r");
+		MappedByteBuffer buffer;
+		try {
+			buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+		}
+		finally {
+			file.close();
+		}
+
+		if(buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+			System.err.println("No valid snapshot: "+snapshot);
+			return null;
+		}
+		//Skip the path, size and modification time of the source file
+		int pathLength = buffer.getInt();
+		buffer.position(buffer.position()+pathLength+16);
+		long stringTableOffset = buffer.getLong();
+		int contentOffset = buffer.position();
+
+		Reader reader = new Reader(buffer);
+		buffer.position((int) stringTableOffset);
+		reader.readStrings();
+		buffer.position(contentOffset);
+		return reader.readLog();
+	}
+
+	/**
+	 * Decodes the content of a snapshot
+	 */
+	private static class Reader {
+		private ByteBuffer buffer;
+		private String[] strings;
+		private Map<Integer, XExtension> extensions = new HashMap<Integer, XExtension>();
+		private XFactory factory = XFactoryRegistry.instance().currentDefault();
+
+		private Reader(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		private void readStrings() {
+			strings = new String[buffer.getInt()];
+			for(int i = 0; i < strings.length; i++) {
+				byte[] bytes = new byte[buffer.getInt()];
+				buffer.get(bytes);
+				strings[i] = new String(bytes, StandardCharsets.UTF_8);
+			}
+		}
+
+		private XLog readLog() {
+			XLog log = factory.createLog();
+			int numberOfExtensions = buffer.getInt();
+			for(int i = 0; i < numberOfExtensions; i++) {
+				XExtension extension = getExtension(buffer.getInt());
+				if(extension != null) {
+					log.getExtensions().add(extension);
+				}
+			}
+			readAttributes(log);
+			log.getGlobalTraceAttributes().addAll(readAttributeList());
+			log.getGlobalEventAttributes().addAll(readAttributeList());
+
+			int numberOfClassifiers = buffer.getInt();
+			for(int i = 0; i < numberOfClassifiers; i++) {
+				String name = strings[buffer.getInt()];
+				String[] keys = new String[buffer.getInt()];
+				for(int k = 0; k < keys.length; k++) {
+					keys[k] = strings[buffer.getInt()];
+				}
+				log.getClassifiers().add(new XEventAttributeClassifier(name, keys));
+			}
+
+			int numberOfTraces = buffer.getInt();
+			for(int t = 0; t < numberOfTraces; t++) {
+				XTrace trace = factory.createTrace();
+				readAttributes(trace);
+				int numberOfEvents = buffer.getInt();
+				for(int e = 0; e < numberOfEvents; e++) {
+					XEvent event = factory.createEvent();
+					readAttributes(event);
+					trace.add(event);
+				}
+				log.add(trace);
+			}
+			return log;
+		}
+
+		private void readAttributes(XAttributable parent) {
+			int size = buffer.getInt();
+			if(size > 0) {
+				XAttributeMap attributes = factory.createAttributeMap();
+				for(int i = 0; i < size; i++) {
+					XAttribute attribute = readAttribute();
+					attributes.put(attribute.getKey(), attribute);
+				}
+				parent.setAttributes(attributes);
+			}
+		}
+
+		private List<XAttribute> readAttributeList() {
+			int size = buffer.getInt();
+			List<XAttribute> attributes = new ArrayList<XAttribute>(size);
+			for(int i = 0; i < size; i++) {
+				attributes.add(readAttribute());
+			}
+			return attributes;
+		}
+
+		private XAttribute readAttribute() {
+			byte type = buffer.get();
+			String key = strings[buffer.getInt()];
+			XExtension extension = getExtension(buffer.getInt());
+			XAttribute attribute;
+			switch(type) {
+				case TIMESTAMP:
+					attribute = factory.createAttributeTimestamp(key, buffer.getLong(), extension);
+					break;
+				case DISCRETE:
+					attribute = factory.createAttributeDiscrete(key, buffer.getLong(), extension);
+					break;
+				case CONTINUOUS:
+					attribute = factory.createAttributeContinuous(key, buffer.getDouble(), extension);
+					break;
+				case BOOLEAN:
+					attribute = factory.createAttributeBoolean(key, buffer.get() != 0, extension);
+					break;
+				case ID:
+					attribute = factory.createAttributeID(key, XID.parse(strings[buffer.getInt()]), extension);
+					break;
+				case LIST:
+					XAttributeList list = factory.createAttributeList(key, extension);
+					for(XAttribute element : readAttributeList()) {
+						list.addToCollection(element);
+					}
+					attribute = list;
+					break;
+				case CONTAINER:
+					attribute = factory.createAttributeContainer(key, extension);
+					break;
+				default:
+					attribute = factory.createAttributeLiteral(key, strings[buffer.getInt()], extension);
+			}
+
+			int numberOfMetaAttributes = buffer.getInt();
+			for(int i = 0; i < numberOfMetaAttributes; i++) {
+				XAttribute meta = readAttribute();
+				attribute.getAttributes().put(meta.getKey(), meta);
+			}
+			return attribute;
+		}
+
+		private XExtension getExtension(int uri) {
+			if(uri == NO_STRING) {
+				return null;
+			}
+			if(!extensions.containsKey(uri)) {
+				extensions.put(uri, XExtensionManager.instance().getByUri(URI.create(strings[uri])));
+			}
+			return extensions.get(uri);
+		}
+	}
+
+	/**
+	 * Assigns every distinct string an index
+	 */
+	private static class StringTable {
+		private Map<String, Integer> ids = new HashMap<String, Integer>();
+		private List<String> values = new ArrayList<String>();
+
+		private int id(String value) {
+			Integer id = ids.get(value);
+			if(id == null) {
+				id = values.size();
+				ids.put(value, id);
+				values.add(value);
+			}
+			return id;
+		}
+
+		private int size() {
+			return values.size();
+		}
+	}
+
+}
@@ -0,0 +1,365 @@
+package loader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.deckfour.xes.classification.XEventAttributeClassifier;
+import org.deckfour.xes.extension.XExtension;
+import org.deckfour.xes.extension.XExtensionManager;
+import org.deckfour.xes.factory.XFactory;
+import org.deckfour.xes.factory.XFactoryRegistry;
+import org.deckfour.xes.id.XID;
+import org.deckfour.xes.model.XAttributable;
+import org.deckfour.xes.model.XAttribute;
+import org.deckfour.xes.model.XAttributeList;
+import org.deckfour.xes.model.XEvent;
+import org.deckfour.xes.model.XLog;
+import org.deckfour.xes.model.XTrace;
+import org.deckfour.xes.util.XTokenHelper;
+import org.deckfour.xes.util.XsDateTimeConversion;
+import org.deckfour.xes.util.XsDateTimeConversionJava7;
+
+/**
+ * This class reads a process log in XES format as a stream. In contrast to the XesXmlParser the log is not
+ * materialized, the traces are delivered one after another, so that only the current trace is held in memory.
+ * The returned log header contains the extensions, global attributes, classifiers and attributes of the log, but no traces.
+ *
+ * @author Martin Kaeppel
+ */
+public class XesStreamReader implements Iterator<XTrace>, Closeable {
+	private final static String LOG = "log";
+	private final static String TRACE = "trace";
+	private final static String EVENT = "event";
+	private final static String EXTENSION = "extension";
+	private final static String GLOBAL = "global";
+	private final static String CLASSIFIER = "classifier";
+
+	private InputStream input;
+	private XMLStreamReader reader;
+	private XFactory factory;
+	private XsDateTimeConversion dateConversion;
+	private Map<String, XExtension> extensions;
+
+	private XLog header;
+	private XTrace nextTrace;
+
+	/**
+	 * Creates a reader for the given stream and reads the header of the log
+	 * @param input		Stream that contains a XES log, the stream is closed by the reader
+	 */
+	public XesStreamReader(InputStream input) throws XMLStreamException {
+		this.input = input;
+		XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+		inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		inputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+		this.reader = inputFactory.createXMLStreamReader(input);
+		this.factory = XFactoryRegistry.instance().currentDefault();
+		this.dateConversion = new XsDateTimeConversionJava7();
+		this.extensions = new HashMap<String, XExtension>();
+		readHeader();
+	}
+
+	/**
+	 * Returns a log without traces that contains the extensions, global attributes, classifiers and attributes of the log
+	 */
+	public XLog getLogHeader() {
+		return header;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return nextTrace != null;
+	}
+
+	@Override
+	public XTrace next() {
+		if(nextTrace == null) {
+			throw new NoSuchElementException();
+		}
+		XTrace trace = nextTrace;
+		try {
+			nextTrace = readTrace();
+		}
+		catch(XMLStreamException e) {
+			throw new IllegalStateException("Invalid XES log", e);
+		}
+		return trace;
+	}
+
+	/**
+	 * Delivers all remaining traces to the given handler and closes the reader
+	 * @param handler
+	 * @return number of delivered traces
+	 */
+	public int forEachRemainingTrace(Consumer<XTrace> handler) throws IOException {
+		int number = 0;
+		try {
+			while(hasNext()) {
+				handler.accept(next());
+				number++;
+			}
+		}
+		finally {
+			close();
+		}
+		return number;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			reader.close();
+		}
+		catch(XMLStreamException e) {
+			throw new IOException(e);
+		}
+		finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Reads all elements of the log until the first trace is found
+	 */
+	private void readHeader() throws XMLStreamException {
+		while(reader.hasNext()) {
+			if(reader.next() == XMLStreamConstants.START_ELEMENT) {
+				String name = reader.getLocalName();
+				if(LOG.equals(name)) {
+					header = factory.createLog();
+				}
+				else if(header == null) {
+					throw new XMLStreamException("No XES log", reader.getLocation());
+				}
+				else if(EXTENSION.equals(name)) {
+					readExtension();
+				}
+				else if(GLOBAL.equals(name)) {
+					readGlobal();
+				}
+				else if(CLASSIFIER.equals(name)) {
+					readClassifier();
+				}
+				else if(TRACE.equals(name)) {
+					nextTrace = readTraceContent();
+					return;
+				}
+				else if(isAttribute(name)) {
+					readAttribute(header);
+				}
+			}
+		}
+		if(header == null) {
+			throw new XMLStreamException("No XES log");
+		}
+	}
+
+	private XTrace readTrace() throws XMLStreamException {
+		while(reader.hasNext()) {
+			int type = reader.next();
+			if(type == XMLStreamConstants.START_ELEMENT && TRACE.equals(reader.getLocalName())) {
+				return readTraceContent();
+			}
+			if(type == XMLStreamConstants.END_ELEMENT && LOG.equals(reader.getLocalName())) {
+				return null;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Reads the attributes and events of a trace, the reader is positioned on the start element of the trace
+	 */
+	private XTrace readTraceContent() throws XMLStreamException {
+		XTrace trace = factory.createTrace();
+		while(reader.hasNext()) {
+			int type = reader.next();
+			if(type == XMLStreamConstants.START_ELEMENT) {
+				String name = reader.getLocalName();
+				if(EVENT.equals(name)) {
+					trace.add(readEvent());
+				}
+				else if(isAttribute(name)) {
+					readAttribute(trace);
+				}
+			}
+			else if(type == XMLStreamConstants.END_ELEMENT && TRACE.equals(reader.getLocalName())) {
+				break;
+			}
+		}
+		return trace;
+	}
+
+	private XEvent readEvent() throws XMLStreamException {
+		XEvent event = factory.createEvent();
+		while(reader.hasNext()) {
+			int type = reader.next();
+			if(type == XMLStreamConstants.START_ELEMENT && isAttribute(reader.getLocalName())) {
+				readAttribute(event);
+			}
+			else if(type == XMLStreamConstants.END_ELEMENT && EVENT.equals(reader.getLocalName())) {
+				break;
+			}
+		}
+		return event;
+	}
+
+	/**
+	 * Reads an attribute including its nested attributes and adds it to the parent, the reader is
+	 * positioned on the start element of the attribute
+	 */
+	private XAttribute readAttribute(XAttributable parent) throws XMLStreamException {
+		String type = reader.getLocalName();
+		String key = reader.getAttributeValue(null, "key");
+		String value = reader.getAttributeValue(null, "value");
+		if(key == null) {
+			key = "";
+		}
+		if(value == null) {
+			value = "";
+		}
+
+		XExtension extension = null;
+		int colon = key.indexOf(':');
+		if(colon > 0 && colon < key.length()-1) {
+			extension = getExtension(key.substring(0, colon));
+		}
+
+		XAttribute attribute = createAttribute(type, key, value, extension);
+
+		//Nested attributes (meta attributes, elements of lists and containers)
+		while(reader.hasNext()) {
+			int event = reader.next();
+			if(event == XMLStreamConstants.START_ELEMENT && isAttribute(reader.getLocalName())) {
+				//The elements of a list are kept in the collection, the elements of a container in the attribute map
+				if(attribute instanceof XAttributeList) {
+					((XAttributeList) attribute).addToCollection(readAttribute(null));
+				}
+				else {
+					readAttribute(attribute);
+				}
+			}
+			else if(event == XMLStreamConstants.END_ELEMENT && type.equals(reader.getLocalName())) {
+				break;
+			}
+		}
+
+		if(parent != null && attribute != null) {
+			parent.getAttributes().put(key, attribute);
+		}
+		return attribute;
+	}
+
+	private XAttribute createAttribute(String type, String key, String value, XExtension extension) {
+		switch(type) {
+			case "string":
+				return factory.createAttributeLiteral(key, value, extension);
+			case "date":
+				return factory.createAttributeTimestamp(key, dateConversion.parseXsDateTime(value), extension);
+			case "int":
+				return factory.createAttributeDiscrete(key, Long.parseLong(value), extension);
+			case "float":
+				return factory.createAttributeContinuous(key, Double.parseDouble(value), extension);
+			case "boolean":
+				return factory.createAttributeBoolean(key, Boolean.parseBoolean(value), extension);
+			case "id":
+				return factory.createAttributeID(key, XID.parse(value), extension);
+			case "list":
+				return factory.createAttributeList(key, extension);
+			default:
+				return factory.createAttributeContainer(key, extension);
+		}
+	}
+
+	private boolean isAttribute(String name) {
+		switch(name) {
+			case "string":
+			case "date":
+			case "int":
+			case "float":
+			case "boolean":
+			case "id":
+			case "list":
+			case "container":
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	private XExtension getExtension(String prefix) {
+		XExtension extension = extensions.get(prefix);
+		if(extension == null && !extensions.containsKey(prefix)) {
+			extension = XExtensionManager.instance().getByPrefix(prefix);
+			extensions.put(prefix, extension);
+		}
+		return extension;
+	}
+
+	private void readExtension() {
+		String uri = reader.getAttributeValue(null, "uri");
+		String prefix = reader.getAttributeValue(null, "prefix");
+		XExtension extension = null;
+		if(uri != null) {
+			extension = XExtensionManager.instance().getByUri(URI.create(uri));
+		}
+		else if(prefix != null) {
+			extension = XExtensionManager.instance().getByPrefix(prefix);
+		}
+
+		if(extension != null) {
+			header.getExtensions().add(extension);
+			extensions.put(extension.getPrefix(), extension);
+		}
+		else {
+			System.err.println("Unknown extension: "+uri);
+		}
+	}
+
+	private void readGlobal() throws XMLStreamException {
+		String scope = reader.getAttributeValue(null, "scope");
+		List<XAttribute> globals = EVENT.equals(scope) ? header.getGlobalEventAttributes() : header.getGlobalTraceAttributes();
+
+		Deque<String> elements = new ArrayDeque<String>();
+		while(reader.hasNext()) {
+			int event = reader.next();
+			if(event == XMLStreamConstants.START_ELEMENT && isAttribute(reader.getLocalName())) {
+				globals.add(readAttribute(null));
+			}
+			else if(event == XMLStreamConstants.START_ELEMENT) {
+				elements.push(reader.getLocalName());
+			}
+			else if(event == XMLStreamConstants.END_ELEMENT) {
+				if(elements.isEmpty()) {
+					break;
+				}
+				elements.pop();
+			}
+		}
+	}
+
+	private void readClassifier() {
+		String name = reader.getAttributeValue(null, "name");
+		String keys = reader.getAttributeValue(null, "keys");
+		if(name != null && keys != null && keys.length() > 0) {
+			List<String> tokens = XTokenHelper.extractTokens(keys);
+			header.getClassifiers().add(new XEventAttributeClassifier(name, tokens.toArray(new String[tokens.size()])));
+		}
+	}
+
+}
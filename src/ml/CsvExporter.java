@@ -0,0 +1,348 @@
+package ml;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.deckfour.xes.extension.std.XConceptExtension;
+import org.deckfour.xes.extension.std.XOrganizationalExtension;
+import org.deckfour.xes.model.XEvent;
+import org.deckfour.xes.model.XLog;
+import org.deckfour.xes.model.XTrace;
+
+import parser.Dictionary;
+import parser.IntLog;
+import parser.VariantIndex;
+import reducer.ReducedLogContainer;
+import util.DateParser;
+
+/**
+ * Writes the event logs as input files (inp_*.csv) of the GenerativeLSTM approach. The lines are assembled in a
+ * reusable byte buffer that is written to a file channel. The columns of the activities and originators are encoded
+ * once per file, the timestamps are written as ISO timestamps in UTC without formatter objects. The duration of an
+ * event is the time since the previous event of its trace in seconds, dur_norm the duration normalized by a
+ * DurationNormalizer whose statistics must be collected before the files are written. The files are
+ * encoded in UTF-8 with \n as line separator, so the output is the same on every operating system.
+ *
+ * @author Martin Kaeppel
+ */
+public class CsvExporter {
+	public final static String HEADER = "caseid,task,user,end_timestamp,role,duration,activity_index,role_index,dur_norm\n";
+	private final static int BUFFER_SIZE = 1 << 16;
+
+	private Map<String, Integer> activityIndex;
+	private Map<String, Integer> roleIndex;
+	private Map<String, String> originatorRoleMap;
+	private boolean lifecycle;
+	private DurationNormalizer normalizer;
+
+	/**
+	 * @param activityIndex			Index of the activities
+	 * @param roleIndex				Index of the roles
+	 * @param originatorRoleMap		Role of each originator
+	 * @param lifecycle				If true the activities are concatenated with the lifecycle transition
+	 * @param normalizer			Normalization of the durations, the statistics must be complete before writing
+	 */
+	public CsvExporter(Map<String, Integer> activityIndex, Map<String, Integer> roleIndex, Map<String, String> originatorRoleMap, boolean lifecycle, DurationNormalizer normalizer) {
+		this.activityIndex = activityIndex;
+		this.roleIndex = roleIndex;
+		this.originatorRoleMap = originatorRoleMap;
+		this.lifecycle = lifecycle;
+		this.normalizer = normalizer;
+	}
+
+	/**
+	 * Writes the input files of several logs in parallel, the file of a log is named inp_[title].csv
+	 * @param path	Directory of the files
+	 */
+	public void export(Collection<ReducedLogContainer> logs, String path) {
+		logs.parallelStream().forEach(container -> {
+			try {
+				export(container.getLog(), new File(path, "inp_"+container.getTitle()+".csv"));
+			}
+			catch(IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	/**
+	 * Writes the input file of a log, timestamps stored as text are parsed with the parser of the log
+	 */
+	public void export(XLog log, File file) throws IOException {
+		Writer writer = open(file, DateParser.forLog(log));
+		try {
+			for(XTrace trace : log) {
+				writer.writeTrace(trace);
+			}
+		}
+		finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Writes the input files of several logs in columnar representation in parallel, the file of a log is named
+	 * inp_[title].csv
+	 * @param logs	Logs by their titles
+	 * @param path	Directory of the files
+	 */
+	public void export(Map<String, IntLog> logs, String path) {
+		logs.entrySet().parallelStream().forEach(entry -> {
+			try {
+				export(entry.getValue(), new File(path, "inp_"+entry.getKey()+".csv"));
+			}
+			catch(IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	/**
+	 * Writes the input file of a log in columnar representation
+	 */
+	public void export(IntLog log, File file) throws IOException {
+		Writer writer = open(file);
+		try {
+			for(int t = 0; t < log.getNumberOfTraces(); t++) {
+				writer.writeTrace(log, t);
+			}
+		}
+		finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Opens a file and writes the header, the writer must only be used by one thread
+	 */
+	public Writer open(File file) throws IOException {
+		return open(file, DateParser.getDefault());
+	}
+
+	/**
+	 * Opens a file and writes the header, the writer must only be used by one thread
+	 * @param parser	Parser of the timestamps stored as text
+	 */
+	public Writer open(File file, DateParser parser) throws IOException {
+		return new Writer(file, parser);
+	}
+
+	/**
+	 * Writer of a single input file. The encoded columns are cached by the writer.
+	 */
+	public class Writer implements Closeable {
+		private FileChannel channel;
+		private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		//Encoded columns "activity," and "activity_index,"
+		private Map<String, byte[][]> activityColumns = new HashMap<String, byte[][]>();
+		//Encoded columns "originator," and ",role," and "role_index,"
+		private Map<String, byte[][]> originatorColumns = new HashMap<String, byte[][]>();
+		//Timestamp of the previous event of the current trace
+		private long previousTimestamp = Long.MIN_VALUE;
+		private DateParser parser;
+
+		private Writer(File file, DateParser parser) throws IOException {
+			this.parser = parser;
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+			put(HEADER.getBytes(StandardCharsets.UTF_8));
+		}
+
+		/**
+		 * Writes a line for every event of a trace
+		 */
+		public void writeTrace(XTrace trace) throws IOException {
+			byte[] caseId = (trace.getAttributes().get(XConceptExtension.KEY_NAME).toString()+",").getBytes(StandardCharsets.UTF_8);
+			previousTimestamp = Long.MIN_VALUE;
+			for(XEvent event : trace) {
+				writeEvent(caseId, VariantIndex.getActivity(event, lifecycle), event);
+			}
+		}
+
+		/**
+		 * Writes a line for every event of a trace of a log in columnar representation
+		 * @param trace		Position of the trace in the log
+		 */
+		public void writeTrace(IntLog log, int trace) throws IOException {
+			byte[] caseId = (log.getCaseId(trace)+",").getBytes(StandardCharsets.UTF_8);
+			Dictionary activities = log.getActivityDictionary(lifecycle);
+			Dictionary resources = log.getResourceDictionary();
+			previousTimestamp = Long.MIN_VALUE;
+			for(int e = log.getTraceStart(trace); e < log.getTraceEnd(trace); e++) {
+				writeEvent(caseId, activities.get(log.getActivity(e, lifecycle)), resources.get(log.getResource(e)), log.getTimestamp(e));
+			}
+		}
+
+		/**
+		 * Writes the line of an event, the duration is computed from the previous event written by writeTrace
+		 * @param caseId	Encoded case id followed by a comma
+		 */
+		public void writeEvent(byte[] caseId, String activity, XEvent event) throws IOException {
+			//TO DO: Preprocessing if invalid data in event log
+			String originator = event.getAttributes().get(XOrganizationalExtension.KEY_RESOURCE).toString();
+			writeEvent(caseId, activity, originator, DurationNormalizer.getTimestamp(event, parser));
+		}
+
+		/**
+		 * Writes the line of an event
+		 * @param timestamp		Timestamp in milliseconds or Long.MIN_VALUE if the event has no timestamp
+		 */
+		private void writeEvent(byte[] caseId, String activity, String originator, long timestamp) throws IOException {
+			byte[][] activityColumn = activityColumns.get(activity);
+			if(activityColumn == null) {
+				activityColumn = new byte[][] {encode(activity+","), encode(activityIndex.get(activity)+",")};
+				activityColumns.put(activity, activityColumn);
+			}
+			byte[][] originatorColumn = originatorColumns.get(originator);
+			if(originatorColumn == null) {
+				String role = originatorRoleMap.get(originator);
+				originatorColumn = new byte[][] {encode(originator+","), encode(","+role+","), encode(roleIndex.get(role)+",")};
+				originatorColumns.put(originator, originatorColumn);
+			}
+			long duration = DurationNormalizer.getDuration(previousTimestamp, timestamp);
+			previousTimestamp = timestamp;
+
+			put(caseId);
+			put(activityColumn[0]);
+			put(originatorColumn[0]);
+			if(buffer.remaining() < 64) {
+				flush();
+			}
+			putTimestamp(timestamp);
+			put(originatorColumn[1]);
+			if(buffer.remaining() < 64) {
+				flush();
+			}
+			//Duration in seconds with millisecond precision
+			putDecimal(duration, 3);
+			buffer.put((byte) ',');
+			put(activityColumn[1]);
+			put(originatorColumn[2]);
+			if(buffer.remaining() < 64) {
+				flush();
+			}
+			putDecimal(Math.round(normalizer.normalize(duration)*1000000), 6);
+			buffer.put((byte) '\n');
+		}
+
+		private byte[] encode(String column) {
+			return column.getBytes(StandardCharsets.UTF_8);
+		}
+
+		private void put(byte[] bytes) throws IOException {
+			if(buffer.remaining() < bytes.length) {
+				flush();
+				if(bytes.length > buffer.capacity()) {
+					ByteBuffer large = ByteBuffer.wrap(bytes);
+					while(large.hasRemaining()) {
+						channel.write(large);
+					}
+					return;
+				}
+			}
+			buffer.put(bytes);
+		}
+
+		/**
+		 * Writes a timestamp as yyyy-MM-ddTHH:mm:ss.SSS in UTC, nothing is written for events without timestamp
+		 */
+		private void putTimestamp(long millis) {
+			if(millis == Long.MIN_VALUE) {
+				return;
+			}
+			long days = Math.floorDiv(millis, 86400000L);
+			int millisOfDay = (int) Math.floorMod(millis, 86400000L);
+
+			//Conversion of the days since 1970-01-01 into the civil date (proleptic Gregorian calendar)
+			long z = days+719468;
+			long era = Math.floorDiv(z, 146097);
+			long dayOfEra = z-era*146097;
+			long yearOfEra = (dayOfEra-dayOfEra/1460+dayOfEra/36524-dayOfEra/146096)/365;
+			long dayOfYear = dayOfEra-(365*yearOfEra+yearOfEra/4-yearOfEra/100);
+			long mp = (5*dayOfYear+2)/153;
+			int day = (int) (dayOfYear-(153*mp+2)/5+1);
+			int month = (int) (mp < 10 ? mp+3 : mp-9);
+			long year = yearOfEra+era*400+(month <= 2 ? 1 : 0);
+
+			if(year < 0 || year > 9999) {
+				buffer.put(encode(String.valueOf(year)));
+			}
+			else {
+				putDigits((int) year, 4);
+			}
+			buffer.put((byte) '-');
+			putDigits(month, 2);
+			buffer.put((byte) '-');
+			putDigits(day, 2);
+			buffer.put((byte) 'T');
+			putDigits(millisOfDay/3600000, 2);
+			buffer.put((byte) ':');
+			putDigits(millisOfDay/60000 % 60, 2);
+			buffer.put((byte) ':');
+			putDigits(millisOfDay/1000 % 60, 2);
+			buffer.put((byte) '.');
+			putDigits(millisOfDay % 1000, 3);
+		}
+
+		/**
+		 * Writes a non-negative fixed point number
+		 * @param value				Value multiplied by 10^fractionDigits
+		 * @param fractionDigits	Number of digits after the decimal point
+		 */
+		private void putDecimal(long value, int fractionDigits) {
+			long scale = 1;
+			for(int i = 0; i < fractionDigits; i++) {
+				scale = scale*10;
+			}
+			long integer = value/scale;
+			int integerDigits = 1;
+			for(long rest = integer/10; rest > 0; rest = rest/10) {
+				integerDigits++;
+			}
+			int position = buffer.position()+integerDigits-1;
+			for(int i = 0; i < integerDigits; i++) {
+				buffer.put(position-i, (byte) ('0'+integer % 10));
+				integer = integer/10;
+			}
+			buffer.position(buffer.position()+integerDigits);
+			buffer.put((byte) '.');
+			putDigits((int) (value % scale), fractionDigits);
+		}
+
+		private void putDigits(int value, int digits) {
+			int position = buffer.position()+digits-1;
+			for(int i = 0; i < digits; i++) {
+				buffer.put(position-i, (byte) ('0'+value % 10));
+				value = value/10;
+			}
+			buffer.position(buffer.position()+digits);
+		}
+
+		private void flush() throws IOException {
+			buffer.flip();
+			while(buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				flush();
+			}
+			finally {
+				channel.close();
+			}
+		}
+	}
+
+}
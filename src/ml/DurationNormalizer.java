@@ -0,0 +1,158 @@
+package ml;
+
+import java.util.Iterator;
+
+import org.deckfour.xes.extension.std.XTimeExtension;
+import org.deckfour.xes.model.XAttribute;
+import org.deckfour.xes.model.XAttributeTimestamp;
+import org.deckfour.xes.model.XEvent;
+import org.deckfour.xes.model.XLog;
+import org.deckfour.xes.model.XTrace;
+
+import parser.IntLog;
+import util.DateParser;
+
+/**
+ * Normalizes the durations of events. The duration of an event is the time since the previous event of its trace
+ * in seconds, the first event of a trace has duration 0. The statistics for the normalization are collected in a
+ * first pass over the traces, afterwards the durations are normalized by the maximal duration (MAX) or by the
+ * logarithm of the maximal duration (LOG), so that the normalized durations are between 0 and 1.
+ *
+ * @author Martin Kaeppel
+ */
+public class DurationNormalizer {
+	public enum Method {
+		//duration/max
+		MAX,
+		//log(1+duration)/log(1+max)
+		LOG
+	}
+
+	private Method method;
+	//Maximal duration in milliseconds
+	private long maximalDuration;
+
+	public DurationNormalizer(Method method) {
+		this.method = method;
+	}
+
+	/**
+	 * Collects the durations of all traces of a log, timestamps stored as text are parsed with the parser of the log
+	 */
+	public void add(XLog log) {
+		DateParser parser = DateParser.forLog(log);
+		for(XTrace trace : log) {
+			add(trace, parser);
+		}
+	}
+
+	/**
+	 * Collects the durations of all traces of a log in columnar representation
+	 */
+	public void add(IntLog log) {
+		for(int t = 0; t < log.getNumberOfTraces(); t++) {
+			long previous = Long.MIN_VALUE;
+			for(int e = log.getTraceStart(t); e < log.getTraceEnd(t); e++) {
+				maximalDuration = Math.max(maximalDuration, getDuration(previous, log.getTimestamp(e)));
+				previous = log.getTimestamp(e);
+			}
+		}
+	}
+
+	/**
+	 * Collects the durations of the events of a trace
+	 */
+	public void add(XTrace trace) {
+		add(trace, DateParser.getDefault());
+	}
+
+	private void add(XTrace trace, DateParser parser) {
+		long previous = Long.MIN_VALUE;
+		for(XEvent event : trace) {
+			long timestamp = getTimestamp(event, parser);
+			maximalDuration = Math.max(maximalDuration, getDuration(previous, timestamp));
+			previous = timestamp;
+		}
+	}
+
+	/**
+	 * Returns an iterator that collects the durations of the traces while they are consumed, so that the
+	 * statistics can be collected in a pass that is needed anyway
+	 * @param parser	Parser of the timestamps stored as text
+	 */
+	public Iterator<XTrace> observe(Iterator<XTrace> traces, DateParser parser) {
+		return new Iterator<XTrace>() {
+			@Override
+			public boolean hasNext() {
+				return traces.hasNext();
+			}
+
+			@Override
+			public XTrace next() {
+				XTrace trace = traces.next();
+				add(trace, parser);
+				return trace;
+			}
+		};
+	}
+
+	/**
+	 * Returns the normalized duration
+	 * @param duration	Duration in milliseconds
+	 */
+	public double normalize(long duration) {
+		if(maximalDuration == 0) {
+			return 0;
+		}
+		double seconds = Math.min(duration, maximalDuration)/1000.0;
+		double maximalSeconds = maximalDuration/1000.0;
+		if(method == Method.LOG) {
+			return Math.log1p(seconds)/Math.log1p(maximalSeconds);
+		}
+		return seconds/maximalSeconds;
+	}
+
+	/**
+	 * Returns the duration between two timestamps in milliseconds, 0 for the first event of a trace and for
+	 * timestamps that are not in order
+	 * @param previous	Timestamp of the previous event or Long.MIN_VALUE for the first event
+	 */
+	public static long getDuration(long previous, long timestamp) {
+		if(previous == Long.MIN_VALUE || timestamp == Long.MIN_VALUE || timestamp < previous) {
+			return 0;
+		}
+		return timestamp-previous;
+	}
+
+	/**
+	 * Returns the timestamp of an event in milliseconds or Long.MIN_VALUE if the event has no timestamp,
+	 * timestamps that are stored as text are parsed
+	 */
+	public static long getTimestamp(XEvent event) {
+		return getTimestamp(event, DateParser.getDefault());
+	}
+
+	/**
+	 * Returns the timestamp of an event in milliseconds or Long.MIN_VALUE if the event has no timestamp
+	 * @param parser	Parser of the timestamps stored as text, e.g. the parser of the log of the event
+	 */
+	public static long getTimestamp(XEvent event, DateParser parser) {
+		XAttribute attribute = event.getAttributes().get(XTimeExtension.KEY_TIMESTAMP);
+		if(attribute instanceof XAttributeTimestamp) {
+			return ((XAttributeTimestamp) attribute).getValueMillis();
+		}
+		if(attribute != null) {
+			return parser.parseMillis(attribute.toString());
+		}
+		return Long.MIN_VALUE;
+	}
+
+	public long getMaximalDuration() {
+		return maximalDuration;
+	}
+
+	public Method getMethod() {
+		return method;
+	}
+
+}
@@ -2,11 +2,12 @@ package ml;
 
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -14,14 +15,19 @@ import java.util.Set;
 import org.deckfour.xes.extension.std.XConceptExtension;
 import org.deckfour.xes.extension.std.XLifecycleExtension;
 import org.deckfour.xes.extension.std.XOrganizationalExtension;
-import org.deckfour.xes.extension.std.XTimeExtension;
 import org.deckfour.xes.model.XEvent;
 import org.deckfour.xes.model.XLog;
 import org.deckfour.xes.model.XTrace;
 
+import loader.Loader;
+import loader.XesStreamReader;
 import parser.ActivityRoleTuple;
+import parser.Dictionary;
+import parser.IntLog;
 import parser.Parser;
+import parser.organizational.RoleModel;
 import reducer.ReducedLogContainer;
+import util.DateParser;
 
 /**
  * This class generates all necessary input file for machine learning
@@ -32,35 +38,30 @@ import reducer.ReducedLogContainer;
  *
  */
 public class GenerativeLSTM implements Approach {
+	//Prefix of the titles of the training logs, the normalization of the durations is based on them only
+	private final static String TRAINING_PREFIX = "log_train";
+	
+	private DurationNormalizer.Method normalization;
 	
 	public GenerativeLSTM() {
-		
+		this(DurationNormalizer.Method.MAX);
+	}
+	
+	/**
+	 * @param normalization	Normalization of the durations in the column dur_norm
+	 */
+	public GenerativeLSTM(DurationNormalizer.Method normalization) {
+		this.normalization = normalization;
 	}
 	
 	public void createInputFiles(XLog originalLog, Set<ReducedLogContainer> reducedLogs, String path, boolean lifecycle) {
 		Parser p = new Parser();
-		Set<String> activities = null;
-		if(lifecycle == true) {
-			activities = p.getActivitiesWithLifecycle(originalLog);			
-		}
-		else {
-			activities = p.getActivities(originalLog);
-		}
-		
-		Map<String, Set<String>> roles = p.extractRoles(originalLog, lifecycle);
-		
-		// Create a map that returns the role to a given originator
-		Map<String, String> originatorRoleMap = new HashMap<String, String>();
-		for(String role : roles.keySet()) {
-			Set<String> participants = roles.get(role);
-			for(String s : participants) {
-				originatorRoleMap.put(s, role);
-			}
-		}
 		
-		//Create indices for activities and roles
-		Map<String, Integer> activityIndex = createActivityIndex(activities, "Start", "End");
-		Map<String, Integer> roleIndex = createRoleIndex(roles.keySet(), "Start", "End");
+		//Roles and indices of activities and roles, the model is cached and shared with the parser
+		RoleModel roleModel = RoleModel.get(originalLog, lifecycle);
+		Map<String, String> originatorRoleMap = roleModel.getOriginatorRoleMap();
+		Map<String, Integer> activityIndex = roleModel.getActivityIndex();
+		Map<String, Integer> roleIndex = roleModel.getRoleIndex();
 		
 		//Serialize files
 		serializeActivityIndex(activityIndex, path);
@@ -68,92 +69,166 @@ public class GenerativeLSTM implements Approach {
 		serializeActivityRoleTuple(p.getActivityRoleTuple(originalLog, lifecycle), path, activityIndex, roleIndex);
 		
 		
-		//Transform reduced logs into csv format
-		for(ReducedLogContainer log : reducedLogs) {
-			Iterator<XTrace> logIterator = log.getLog().iterator();
-			
-			File pairFile = new File(path+"\\inp_"+log.getTitle()+".csv");
-			if(pairFile.exists()) {
-				pairFile.delete();			
-			}
-			pairFile = new File(path+"\\inp_"+log.getTitle()+".csv");
-
-			try {
-				FileWriter fileWriter = new FileWriter(pairFile, true);
-				BufferedWriter writer = new BufferedWriter(fileWriter);
-			    PrintWriter out = new PrintWriter(writer);
-			    out.print("caseid,task,user,end_timestamp,role,duration,activity_index,role_index,dur_norm"+"\n");
-				
-				while(logIterator.hasNext()) {
-					XTrace currentTrace = logIterator.next();
-					String caseId = currentTrace.getAttributes().get(XConceptExtension.KEY_NAME).toString();
-					Iterator<XEvent> traceIterator = currentTrace.iterator();
-					while(traceIterator.hasNext()) {
-						XEvent currentEvent = traceIterator.next();
-						
-						String line = "";
-						
-						String activity = currentEvent.getAttributes().get(XConceptExtension.KEY_NAME).toString();
-						if(lifecycle == true) {
-							String transition = currentEvent.getAttributes().get(XLifecycleExtension.KEY_TRANSITION).toString();
-							activity = activity+"-"+transition;
-						}
-						//TO DO: Preprocessing if invalid data in event log
-						String originator = currentEvent.getAttributes().get(XOrganizationalExtension.KEY_RESOURCE).toString();
-						String endTimestamp = XTimeExtension.instance().extractTimestamp(currentEvent).toString();
-						String role = originatorRoleMap.get(originator);
-						//Time is not supported until now
-						String duration = "0";
-						
-						int aIndex = activityIndex.get(activity).intValue();
-						int rIndex = roleIndex.get(role).intValue();
-						
-						String durNorm = "";
-
-						line = line+caseId+","+activity+","+originator+","+endTimestamp+","+role+","+duration+","+aIndex+","+rIndex+","+durNorm+"\n";
-						out.print(line);
-					}	
-				}   
-				out.close();
-			} 
-			catch(IOException e) {
-				e.printStackTrace();
+		//Collect the durations of the training logs, so that all files use the same normalization without test data
+		DurationNormalizer normalizer = new DurationNormalizer(normalization);
+		boolean training = false;
+		for(ReducedLogContainer container : reducedLogs) {
+			if(container.getTitle().startsWith(TRAINING_PREFIX)) {
+				normalizer.add(container.getLog());
+				training = true;
 			}
-			
+		}
+		if(training == false) {
+			System.err.println("No training log, the normalized durations are 0");
+		}
+		
+		//Transform reduced logs into csv format, the logs are independent and written in parallel
+		try {
+			new CsvExporter(activityIndex, roleIndex, originatorRoleMap, lifecycle, normalizer).export(reducedLogs, path);
+		}
+		catch(UncheckedIOException e) {
+			e.printStackTrace();
 		}
 		
 	}
 		
-	private Map<String, Integer> createActivityIndex(Set<String> activities, String start, String end) {
-		Map<String, Integer> acIndex = new HashMap<String, Integer>();
+	/**
+	 * Variant for logs in columnar representation, e.g. the results of the IntLog overloads of the reducers and
+	 * splitters. The role model is computed from the original log.
+	 * 
+	 * @param logs	Logs by their titles, the titles are used for the names of the input files
+	 */
+	public void createInputFiles(IntLog originalLog, Map<String, IntLog> logs, String path, boolean lifecycle) {
+		RoleModel roleModel = RoleModel.compute(originalLog, lifecycle);
+		Map<String, String> originatorRoleMap = roleModel.getOriginatorRoleMap();
+		Map<String, Integer> activityIndex = roleModel.getActivityIndex();
+		Map<String, Integer> roleIndex = roleModel.getRoleIndex();
 		
-		acIndex.put(start, 0);
+		serializeActivityIndex(activityIndex, path);
+		serializeRoleIndex(roleIndex, path);
 		
-		int index = 1;
-		for(String activity : activities) {
-			acIndex.put(activity, index);
-			index++;
+		//One pair per event with activity and originator
+		Dictionary activities = originalLog.getActivityDictionary(lifecycle);
+		Dictionary resources = originalLog.getResourceDictionary();
+		try {
+			PrintWriter pairFile = new PrintWriter(createWriter(path, "inp_pairs.csv"));
+			pairFile.print("Activity,Role\n");
+			for(int e = 0; e < originalLog.getNumberOfEvents(); e++) {
+				int activity = originalLog.getActivity(e, lifecycle);
+				int resource = originalLog.getResource(e);
+				if(activity != Dictionary.NO_VALUE && resource != Dictionary.NO_VALUE) {
+					pairFile.print(activityIndex.get(activities.get(activity))+","+roleIndex.get(originatorRoleMap.get(resources.get(resource)))+"\n");
+				}
+			}
+			pairFile.close();
+		}
+		catch(IOException e) {
+			e.printStackTrace();
 		}
-		acIndex.put(end, index);
 		
-		return acIndex;
+		//Collect the durations of the training logs
+		DurationNormalizer normalizer = new DurationNormalizer(normalization);
+		boolean training = false;
+		for(Map.Entry<String, IntLog> entry : logs.entrySet()) {
+			if(entry.getKey().startsWith(TRAINING_PREFIX)) {
+				normalizer.add(entry.getValue());
+				training = true;
+			}
+		}
+		if(training == false) {
+			System.err.println("No training log, the normalized durations are 0");
+		}
+		
+		try {
+			new CsvExporter(activityIndex, roleIndex, originatorRoleMap, lifecycle, normalizer).export(logs, path);
+		}
+		catch(UncheckedIOException e) {
+			e.printStackTrace();
+		}
 	}
 		
-	private Map<String, Integer> createRoleIndex(Set<String> roles, String startRole, String endRole) {
-		Map<String, Integer> roleIndex = new HashMap<String, Integer>();
+	/**
+	 * Streaming variant for logs that do not fit into memory. The log file is read twice: the first pass extracts the
+	 * role model and collects the durations for the normalization, the second pass writes the input file of the log
+	 * and the activity role pairs. The activities are indexed in the order of their first occurrence.
+	 * 
+	 * @param logPath	Location of the log file
+	 * @param title		Title of the created input file
+	 * @param path		Directory for the created files
+	 */
+	public void createInputFiles(String logPath, String title, String path, boolean lifecycle) {
+		Loader loader = Loader.getInstance();
+		
+		//First pass: Extract the role model and collect the durations
+		XesStreamReader reader = loader.streamProcessLog(logPath);
+		if(reader == null) {
+			return;
+		}
+		//The streamed log has no XLog, so it gets an own parser for both passes
+		DateParser parser = new DateParser();
+		DurationNormalizer normalizer = new DurationNormalizer(normalization);
+		RoleModel roleModel = RoleModel.compute(normalizer.observe(reader, parser), lifecycle);
+		closeReader(reader);
 		
-		roleIndex.put(startRole, 0);
+		Map<String, String> originatorRoleMap = roleModel.getOriginatorRoleMap();
+		Map<String, Integer> roleIndex = roleModel.getRoleIndex();
+		Map<String, Integer> activityIndex = roleModel.getActivityIndex();
 		
-		int index = 1;
-		for(String role : roles) {
-			roleIndex.put(role, index);
-			index++;
+		//Second pass: Transform the log into csv format
+		reader = loader.streamProcessLog(logPath);
+		if(reader == null) {
+			return;
+		}
+		try {
+			CsvExporter.Writer out = new CsvExporter(activityIndex, roleIndex, originatorRoleMap, lifecycle, normalizer).open(new File(path, "inp_"+title+".csv"), parser);
+			//One pair per event with activity and originator, like Parser.getActivityRoleTuple in the in-memory variant
+			PrintWriter pairFile = new PrintWriter(createWriter(path, "inp_pairs.csv"));
+			pairFile.print("Activity,Role\n");
+			
+			while(reader.hasNext()) {
+				XTrace currentTrace = reader.next();
+				for(XEvent currentEvent : currentTrace) {
+					String activity = XConceptExtension.instance().extractName(currentEvent);
+					if(lifecycle == true) {
+						activity = activity+"-"+XLifecycleExtension.instance().extractTransition(currentEvent);
+					}
+					String originator = XOrganizationalExtension.instance().extractResource(currentEvent);
+					if(activity != null && originator != null) {
+						pairFile.print(activityIndex.get(activity)+","+roleIndex.get(originatorRoleMap.get(originator))+"\n");
+					}
+				}
+				out.writeTrace(currentTrace);
+			}
+			out.close();
+			pairFile.close();
+		}
+		catch(IOException e) {
+			e.printStackTrace();
+		}
+		finally {
+			closeReader(reader);
 		}
-		roleIndex.put(endRole, index);
 		
-		return roleIndex;
+		serializeActivityIndex(activityIndex, path);
+		serializeRoleIndex(roleIndex, path);
 	}
 	
+	/**
+	 * Creates a writer for a file in the given directory, the files are encoded in UTF-8
+	 */
+	private BufferedWriter createWriter(String path, String name) throws IOException {
+		return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(new File(path, name)), StandardCharsets.UTF_8));
+	}
+	
+	private void closeReader(XesStreamReader reader) {
+		try {
+			reader.close();
+		}
+		catch(IOException e) {
+			e.printStackTrace();
+		}
+	}
+		
 	private void serializeActivityIndex(Map<String, Integer> activityIndex, String path) {
 		StringBuilder sb = new StringBuilder();
 		sb.append("Activity,Index");
@@ -166,9 +241,8 @@ public class GenerativeLSTM implements Approach {
 		}
 		
 		BufferedWriter writer = null;
-		File activityFile = new File(path+"\\inp_activities.csv");
 		try {
-			writer = new BufferedWriter(new FileWriter(activityFile));
+			writer = createWriter(path, "inp_activities.csv");
 			writer.write(sb.toString());
 		}
 		catch(Exception e) {
@@ -195,9 +269,8 @@ public class GenerativeLSTM implements Approach {
 		}
 		
 		BufferedWriter writer = null;
-		File roleFile = new File(path+"\\inp_roles.csv");
 		try {
-			writer = new BufferedWriter(new FileWriter(roleFile));
+			writer = createWriter(path, "inp_roles.csv");
 			writer.write(sb.toString());
 		}
 		catch(Exception e) {
@@ -215,16 +288,8 @@ public class GenerativeLSTM implements Approach {
 	
 	
 	private void serializeActivityRoleTuple(List<ActivityRoleTuple> pairs, String path, Map<String, Integer> activityIndex, Map<String, Integer> roleIndex) {
-		File pairFile = new File(path+"\\inp_pairs.csv");
-		if(pairFile.exists()) {
-			pairFile.delete();			
-		}
-		pairFile = new File(path+"\\inp_pairs.csv");
-
 		try {
-			FileWriter fileWriter = new FileWriter(pairFile, true);
-			BufferedWriter writer = new BufferedWriter(fileWriter);
-		    PrintWriter out = new PrintWriter(writer);
+		    PrintWriter out = new PrintWriter(createWriter(path, "inp_pairs.csv"));
 		    out.print("Activity,Role\n");
 			for(ActivityRoleTuple t : pairs) {
 				out.print(activityIndex.get(t.getActivity())+","+roleIndex.get(t.getRole())+"\n");
@@ -35,7 +35,7 @@ public class ActivityOriginatorTuple {
 	
 	@Override
 	public int hashCode() {
-		return 0;
+		return 31*activity.hashCode()+originator.hashCode();
 	}
 	
 	@Override
@@ -35,7 +35,7 @@ public class ActivityRoleTuple {
 	
 	@Override
 	public int hashCode() {
-		return 0;
+		return 31*activity.hashCode()+role.hashCode();
 	}
 	
 	@Override
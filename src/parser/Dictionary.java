@@ -0,0 +1,82 @@
+package parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class interns string values (activities, resources, lifecycle transitions) into consecutive int ids.
+ * The ids start with 0 and are assigned in the order of the first occurrence.
+ *
+ * @author Martin Kaeppel
+ */
+public class Dictionary {
+	//Id that is used for missing values
+	public final static int NO_VALUE = -1;
+
+	private Map<String, Integer> ids = new HashMap<String, Integer>();
+	private List<String> values = new ArrayList<String>();
+
+	public Dictionary() {
+
+	}
+
+	/**
+	 * Returns the id of the value, if the value is unknown a new id is assigned
+	 * @param value
+	 * @return id of the value or NO_VALUE if the value is null
+	 */
+	public int intern(String value) {
+		if(value == null) {
+			return NO_VALUE;
+		}
+		Integer id = ids.get(value);
+		if(id == null) {
+			id = values.size();
+			ids.put(value, id);
+			values.add(value);
+		}
+		return id.intValue();
+	}
+
+	/**
+	 * Returns the id of a value without assigning a new one
+	 * @param value
+	 * @return id of the value or NO_VALUE if the value is unknown
+	 */
+	public int getId(String value) {
+		Integer id = ids.get(value);
+		if(id == null) {
+			return NO_VALUE;
+		}
+		return id.intValue();
+	}
+
+	/**
+	 * Returns the value of an id
+	 * @param id
+	 * @return value or null if the id is NO_VALUE
+	 */
+	public String get(int id) {
+		if(id == NO_VALUE) {
+			return null;
+		}
+		return values.get(id);
+	}
+
+	public int size() {
+		return values.size();
+	}
+
+	public List<String> getValues() {
+		return Collections.unmodifiableList(values);
+	}
+
+	@Override
+	public String toString() {
+		return values.toString();
+	}
+
+}
@@ -0,0 +1,287 @@
+package parser;
+
+import java.util.Date;
+
+import org.deckfour.xes.extension.std.XConceptExtension;
+import org.deckfour.xes.extension.std.XLifecycleExtension;
+import org.deckfour.xes.extension.std.XOrganizationalExtension;
+import org.deckfour.xes.extension.std.XTimeExtension;
+import org.deckfour.xes.factory.XFactory;
+import org.deckfour.xes.factory.XFactoryNaiveImpl;
+import org.deckfour.xes.model.XAttribute;
+import org.deckfour.xes.model.XAttributeMap;
+import org.deckfour.xes.model.XAttributeTimestamp;
+import org.deckfour.xes.model.XEvent;
+import org.deckfour.xes.model.XLog;
+import org.deckfour.xes.model.XTrace;
+
+/**
+ * Columnar representation of an event log. Activities, resources and lifecycle transitions are interned
+ * into dictionaries and stored as int arrays, timestamps are stored as epoch milliseconds. The events of the
+ * trace t are stored at the positions traceOffsets[t] (inclusive) to traceOffsets[t+1] (exclusive).
+ * Only the case id, activity, resource, lifecycle transition and timestamp of an event are kept.
+ *
+ * @author Martin Kaeppel
+ */
+public class IntLog {
+	//Value that is used for missing timestamps
+	public final static long NO_TIMESTAMP = Long.MIN_VALUE;
+
+	private String[] caseIds;
+	private int[] traceOffsets;
+	private int[] activities;
+	private int[] activitiesWithLifecycle;
+	private int[] resources;
+	private int[] transitions;
+	private long[] timestamps;
+
+	private Dictionary activityDictionary;
+	private Dictionary activityWithLifecycleDictionary;
+	private Dictionary resourceDictionary;
+	private Dictionary transitionDictionary;
+
+	private IntLog(int numberOfTraces, int numberOfEvents) {
+		caseIds = new String[numberOfTraces];
+		traceOffsets = new int[numberOfTraces+1];
+		activities = new int[numberOfEvents];
+		activitiesWithLifecycle = new int[numberOfEvents];
+		resources = new int[numberOfEvents];
+		transitions = new int[numberOfEvents];
+		timestamps = new long[numberOfEvents];
+		activityDictionary = new Dictionary();
+		activityWithLifecycleDictionary = new Dictionary();
+		resourceDictionary = new Dictionary();
+		transitionDictionary = new Dictionary();
+	}
+
+	/**
+	 * Builds the columnar representation of a given event log
+	 * @param log
+	 * @return encoded log
+	 */
+	public static IntLog fromXLog(XLog log) {
+		int numberOfEvents = 0;
+		for(XTrace trace : log) {
+			numberOfEvents = numberOfEvents + trace.size();
+		}
+
+		IntLog intLog = new IntLog(log.size(), numberOfEvents);
+		int t = 0;
+		int e = 0;
+		for(XTrace trace : log) {
+			intLog.caseIds[t] = value(trace.getAttributes(), XConceptExtension.KEY_NAME);
+			intLog.traceOffsets[t] = e;
+			for(XEvent event : trace) {
+				intLog.setEvent(e, event);
+				e++;
+			}
+			t++;
+		}
+		intLog.traceOffsets[t] = e;
+		return intLog;
+	}
+
+	private void setEvent(int e, XEvent event) {
+		XAttributeMap attributes = event.getAttributes();
+		String activity = value(attributes, XConceptExtension.KEY_NAME);
+		String transition = value(attributes, XLifecycleExtension.KEY_TRANSITION);
+
+		activities[e] = activityDictionary.intern(activity);
+		transitions[e] = transitionDictionary.intern(transition);
+		if(activity != null && transition != null) {
+			activitiesWithLifecycle[e] = activityWithLifecycleDictionary.intern(activity+"-"+transition);
+		}
+		else {
+			activitiesWithLifecycle[e] = activityWithLifecycleDictionary.intern(activity);
+		}
+		resources[e] = resourceDictionary.intern(value(attributes, XOrganizationalExtension.KEY_RESOURCE));
+
+		XAttribute timestamp = attributes.get(XTimeExtension.KEY_TIMESTAMP);
+		if(timestamp instanceof XAttributeTimestamp) {
+			timestamps[e] = ((XAttributeTimestamp) timestamp).getValueMillis();
+		}
+		else {
+			timestamps[e] = NO_TIMESTAMP;
+		}
+	}
+
+	private static String value(XAttributeMap attributes, String key) {
+		XAttribute attribute = attributes.get(key);
+		if(attribute != null) {
+			return attribute.toString();
+		}
+		return null;
+	}
+
+	/**
+	 * Converts the log back into an XLog. Only the stored attributes are restored.
+	 * @return XLog with the traces of this log
+	 */
+	public XLog toXLog() {
+		XFactory factory = new XFactoryNaiveImpl();
+		XLog log = factory.createLog();
+		log.getExtensions().add(XConceptExtension.instance());
+		log.getExtensions().add(XLifecycleExtension.instance());
+		log.getExtensions().add(XOrganizationalExtension.instance());
+		log.getExtensions().add(XTimeExtension.instance());
+
+		for(int t = 0; t < getNumberOfTraces(); t++) {
+			XTrace trace = factory.createTrace();
+			if(caseIds[t] != null) {
+				XConceptExtension.instance().assignName(trace, caseIds[t]);
+			}
+			for(int e = traceOffsets[t]; e < traceOffsets[t+1]; e++) {
+				XEvent event = factory.createEvent();
+				if(activities[e] != Dictionary.NO_VALUE) {
+					XConceptExtension.instance().assignName(event, activityDictionary.get(activities[e]));
+				}
+				if(transitions[e] != Dictionary.NO_VALUE) {
+					XLifecycleExtension.instance().assignTransition(event, transitionDictionary.get(transitions[e]));
+				}
+				if(resources[e] != Dictionary.NO_VALUE) {
+					XOrganizationalExtension.instance().assignResource(event, resourceDictionary.get(resources[e]));
+				}
+				if(timestamps[e] != NO_TIMESTAMP) {
+					XTimeExtension.instance().assignTimestamp(event, new Date(timestamps[e]));
+				}
+				trace.add(event);
+			}
+			log.add(trace);
+		}
+		return log;
+	}
+
+	/**
+	 * Creates a log that contains only the given traces in the given order. The dictionaries are shared.
+	 * @param traces	indices of the traces
+	 * @return log with the selected traces
+	 */
+	public IntLog select(int[] traces) {
+		int numberOfEvents = 0;
+		for(int t : traces) {
+			numberOfEvents = numberOfEvents + getTraceLength(t);
+		}
+
+		IntLog selection = new IntLog(traces.length, numberOfEvents);
+		selection.activityDictionary = activityDictionary;
+		selection.activityWithLifecycleDictionary = activityWithLifecycleDictionary;
+		selection.resourceDictionary = resourceDictionary;
+		selection.transitionDictionary = transitionDictionary;
+
+		int position = 0;
+		for(int i = 0; i < traces.length; i++) {
+			int t = traces[i];
+			int start = traceOffsets[t];
+			int length = getTraceLength(t);
+			selection.caseIds[i] = caseIds[t];
+			selection.traceOffsets[i] = position;
+			System.arraycopy(activities, start, selection.activities, position, length);
+			System.arraycopy(activitiesWithLifecycle, start, selection.activitiesWithLifecycle, position, length);
+			System.arraycopy(resources, start, selection.resources, position, length);
+			System.arraycopy(transitions, start, selection.transitions, position, length);
+			System.arraycopy(timestamps, start, selection.timestamps, position, length);
+			position = position + length;
+		}
+		selection.traceOffsets[traces.length] = position;
+		return selection;
+	}
+
+	public int getNumberOfTraces() {
+		return caseIds.length;
+	}
+
+	public int getNumberOfEvents() {
+		return activities.length;
+	}
+
+	public String getCaseId(int trace) {
+		return caseIds[trace];
+	}
+
+	/**
+	 * Returns the position of the first event of a trace
+	 */
+	public int getTraceStart(int trace) {
+		return traceOffsets[trace];
+	}
+
+	/**
+	 * Returns the position after the last event of a trace
+	 */
+	public int getTraceEnd(int trace) {
+		return traceOffsets[trace+1];
+	}
+
+	public int getTraceLength(int trace) {
+		return traceOffsets[trace+1]-traceOffsets[trace];
+	}
+
+	public int getActivity(int event) {
+		return activities[event];
+	}
+
+	/**
+	 * Returns the id of the activity of an event
+	 * @param event
+	 * @param lifecycle		If true the id of the activity concatenated with the lifecycle transition is returned
+	 */
+	public int getActivity(int event, boolean lifecycle) {
+		if(lifecycle == true) {
+			return activitiesWithLifecycle[event];
+		}
+		return activities[event];
+	}
+
+	public int getResource(int event) {
+		return resources[event];
+	}
+
+	public int getTransition(int event) {
+		return transitions[event];
+	}
+
+	public long getTimestamp(int event) {
+		return timestamps[event];
+	}
+
+	/**
+	 * Returns the sequence of activities of a trace
+	 * @param trace
+	 * @param lifecycle		If true the activities are concatenated with the lifecycle transition
+	 */
+	public IntSequence getActivitySequence(int trace, boolean lifecycle) {
+		if(lifecycle == true) {
+			return new IntSequence(activitiesWithLifecycle, traceOffsets[trace], traceOffsets[trace+1]);
+		}
+		return new IntSequence(activities, traceOffsets[trace], traceOffsets[trace+1]);
+	}
+
+	public Dictionary getActivityDictionary() {
+		return activityDictionary;
+	}
+
+	/**
+	 * Returns the dictionary of the activities
+	 * @param lifecycle		If true the dictionary of the activities concatenated with the lifecycle transition is returned
+	 */
+	public Dictionary getActivityDictionary(boolean lifecycle) {
+		if(lifecycle == true) {
+			return activityWithLifecycleDictionary;
+		}
+		return activityDictionary;
+	}
+
+	public Dictionary getResourceDictionary() {
+		return resourceDictionary;
+	}
+
+	public Dictionary getTransitionDictionary() {
+		return transitionDictionary;
+	}
+
+	@Override
+	public String toString() {
+		return "Traces: "+getNumberOfTraces()+", Events: "+getNumberOfEvents()+", Activities: "+activityDictionary.size()+", Resources: "+resourceDictionary.size();
+	}
+
+}
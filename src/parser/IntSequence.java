@@ -0,0 +1,60 @@
+package parser;
+
+import java.util.Arrays;
+
+/**
+ * Immutable sequence of int ids, e.g. the activities of a trace encoded by a Dictionary.
+ * The hash code is computed once, so the sequences can be used as keys of hash based collections.
+ *
+ * @author Martin Kaeppel
+ */
+public final class IntSequence {
+	private final int[] elements;
+	private final int hash;
+
+	public IntSequence(int[] elements) {
+		this(elements, 0, elements.length);
+	}
+
+	/**
+	 * Creates a sequence from the range [from, to) of the given array. The array is copied.
+	 */
+	public IntSequence(int[] elements, int from, int to) {
+		this.elements = Arrays.copyOfRange(elements, from, to);
+		this.hash = Arrays.hashCode(this.elements);
+	}
+
+	public int get(int index) {
+		return elements[index];
+	}
+
+	public int length() {
+		return elements.length;
+	}
+
+	public int[] toArray() {
+		return elements.clone();
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if(!(o instanceof IntSequence)) {
+			return false;
+		}
+		else {
+			IntSequence c = (IntSequence) o;
+			return hash == c.hash && Arrays.equals(elements, c.elements);
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(elements);
+	}
+
+}
@@ -0,0 +1,325 @@
+package parser;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.deckfour.xes.extension.std.XConceptExtension;
+import org.deckfour.xes.extension.std.XLifecycleExtension;
+import org.deckfour.xes.extension.std.XOrganizationalExtension;
+import org.deckfour.xes.extension.std.XTimeExtension;
+import org.deckfour.xes.model.XAttribute;
+import org.deckfour.xes.model.XAttributeMap;
+import org.deckfour.xes.model.XEvent;
+import org.deckfour.xes.model.XLog;
+import org.deckfour.xes.model.XTrace;
+
+/**
+ * This class summarizes an event log. All metrics are collected in a single traversal of the log,
+ * instead of scanning the log once for each metric. The traversal can be done in parallel over the traces.
+ *
+ * @author Martin Kaeppel
+ */
+public class LogStatistics {
+
+	//Logs with less traces are always traversed sequentially
+	public final static int PARALLEL_THRESHOLD = 10000;
+
+	private int numberOfTraces = 0;
+	private int numberOfEvents = 0;
+	private long minimalDuration = Long.MAX_VALUE;
+	private long maximalDuration = Long.MIN_VALUE;
+	private int minimalEventsPerTrace = Integer.MAX_VALUE;
+	private int maximalEventsPerTrace = Integer.MIN_VALUE;
+
+	private Set<String> caseIds = new HashSet<String>();
+	private Set<String> activities = new HashSet<String>();
+	private Set<String> activitiesWithLifecycle = new HashSet<String>();
+	private Set<String> startActivities = new HashSet<String>();
+	private Set<String> startActivitiesWithLifecycle = new HashSet<String>();
+	private Set<String> originators = new HashSet<String>();
+	private Set<String> lifecycleTransitions = new HashSet<String>();
+	private Set<String> roles = new HashSet<String>();
+	private Set<String> groups = new HashSet<String>();
+
+	private LogStatistics() {
+
+	}
+
+	/**
+	 * Computes the statistics of a given event log. Large logs are traversed in parallel.
+	 * @param log
+	 * @return statistics of the log
+	 */
+	public static LogStatistics compute(XLog log) {
+		return compute(log, log.size() >= PARALLEL_THRESHOLD);
+	}
+
+	/**
+	 * Computes the statistics of a given event log
+	 * @param log
+	 * @param parallel		If true the traces are processed in parallel
+	 * @return statistics of the log
+	 */
+	public static LogStatistics compute(XLog log, boolean parallel) {
+		if(parallel == true) {
+			return log.parallelStream().collect(LogStatistics::new, LogStatistics::add, LogStatistics::merge);
+		}
+		else {
+			return compute(log.iterator());
+		}
+	}
+
+	/**
+	 * Computes the statistics of the traces delivered by the given iterator
+	 * @param traces
+	 * @return statistics of the traces
+	 */
+	public static LogStatistics compute(Iterator<XTrace> traces) {
+		LogStatistics statistics = new LogStatistics();
+		while(traces.hasNext()) {
+			statistics.add(traces.next());
+		}
+		return statistics;
+	}
+
+	/**
+	 * Computes the statistics of a log in columnar representation. Roles and groups are not
+	 * contained in the columnar representation and therefore empty.
+	 * @param log
+	 * @return statistics of the log
+	 */
+	public static LogStatistics compute(IntLog log) {
+		LogStatistics statistics = new LogStatistics();
+		statistics.numberOfTraces = log.getNumberOfTraces();
+		statistics.numberOfEvents = log.getNumberOfEvents();
+
+		boolean[] activities = new boolean[log.getActivityDictionary().size()];
+		boolean[] activitiesWithLifecycle = new boolean[log.getActivityDictionary(true).size()];
+		boolean[] startActivities = new boolean[log.getActivityDictionary().size()];
+		boolean[] startActivitiesWithLifecycle = new boolean[log.getActivityDictionary(true).size()];
+		boolean[] originators = new boolean[log.getResourceDictionary().size()];
+		boolean[] transitions = new boolean[log.getTransitionDictionary().size()];
+
+		for(int t = 0; t < log.getNumberOfTraces(); t++) {
+			if(log.getCaseId(t) != null) {
+				statistics.caseIds.add(log.getCaseId(t));
+			}
+			int start = log.getTraceStart(t);
+			int end = log.getTraceEnd(t);
+			statistics.minimalEventsPerTrace = Math.min(statistics.minimalEventsPerTrace, end-start);
+			statistics.maximalEventsPerTrace = Math.max(statistics.maximalEventsPerTrace, end-start);
+
+			for(int e = start; e < end; e++) {
+				mark(activities, log.getActivity(e));
+				mark(activitiesWithLifecycle, log.getActivity(e, true));
+				mark(originators, log.getResource(e));
+				mark(transitions, log.getTransition(e));
+			}
+			if(end > start) {
+				if(log.getActivity(start) != Dictionary.NO_VALUE) {
+					mark(startActivities, log.getActivity(start));
+					mark(startActivitiesWithLifecycle, log.getActivity(start, true));
+				}
+				long firstTimestamp = log.getTimestamp(start);
+				long lastTimestamp = log.getTimestamp(end-1);
+				if(firstTimestamp != IntLog.NO_TIMESTAMP && lastTimestamp != IntLog.NO_TIMESTAMP) {
+					statistics.minimalDuration = Math.min(statistics.minimalDuration, lastTimestamp-firstTimestamp);
+					statistics.maximalDuration = Math.max(statistics.maximalDuration, lastTimestamp-firstTimestamp);
+				}
+			}
+		}
+
+		collect(activities, log.getActivityDictionary(), statistics.activities);
+		collect(activitiesWithLifecycle, log.getActivityDictionary(true), statistics.activitiesWithLifecycle);
+		collect(startActivities, log.getActivityDictionary(), statistics.startActivities);
+		collect(startActivitiesWithLifecycle, log.getActivityDictionary(true), statistics.startActivitiesWithLifecycle);
+		collect(originators, log.getResourceDictionary(), statistics.originators);
+		collect(transitions, log.getTransitionDictionary(), statistics.lifecycleTransitions);
+		return statistics;
+	}
+
+	private static void mark(boolean[] occurrences, int id) {
+		if(id != Dictionary.NO_VALUE) {
+			occurrences[id] = true;
+		}
+	}
+
+	private static void collect(boolean[] occurrences, Dictionary dictionary, Set<String> values) {
+		for(int id = 0; id < occurrences.length; id++) {
+			if(occurrences[id] == true) {
+				values.add(dictionary.get(id));
+			}
+		}
+	}
+
+	private void add(XTrace trace) {
+		numberOfTraces++;
+		numberOfEvents = numberOfEvents + trace.size();
+
+		XAttribute caseId = trace.getAttributes().get(XConceptExtension.KEY_NAME);
+		if(caseId != null) {
+			caseIds.add(caseId.toString());
+		}
+
+		if(trace.size() < minimalEventsPerTrace) {
+			minimalEventsPerTrace = trace.size();
+		}
+		if(trace.size() > maximalEventsPerTrace) {
+			maximalEventsPerTrace = trace.size();
+		}
+
+		boolean first = true;
+		for(XEvent currentEvent : trace) {
+			XAttributeMap attributes = currentEvent.getAttributes();
+			String activity = value(attributes, XConceptExtension.KEY_NAME);
+			String transition = value(attributes, XLifecycleExtension.KEY_TRANSITION);
+			String activityWithLifecycle = null;
+			if(activity != null) {
+				activityWithLifecycle = transition != null ? activity+"-"+transition : activity;
+				activities.add(activity);
+				activitiesWithLifecycle.add(activityWithLifecycle);
+			}
+			if(transition != null) {
+				lifecycleTransitions.add(transition);
+			}
+
+			String originator = value(attributes, XOrganizationalExtension.KEY_RESOURCE);
+			if(originator != null) {
+				originators.add(originator);
+			}
+			String role = value(attributes, XOrganizationalExtension.KEY_ROLE);
+			if(role != null) {
+				roles.add(role);
+			}
+			String group = value(attributes, XOrganizationalExtension.KEY_GROUP);
+			if(group != null) {
+				groups.add(group);
+			}
+
+			if(first == true && activity != null) {
+				startActivities.add(activity);
+				startActivitiesWithLifecycle.add(activityWithLifecycle);
+			}
+			first = false;
+		}
+
+		//The duration of a trace is the distance between the first and the last event
+		if(trace.size() > 0) {
+			Date firstTimestamp = XTimeExtension.instance().extractTimestamp(trace.get(0));
+			Date lastTimestamp = XTimeExtension.instance().extractTimestamp(trace.get(trace.size()-1));
+			if(firstTimestamp != null && lastTimestamp != null) {
+				long duration = lastTimestamp.getTime()-firstTimestamp.getTime();
+				minimalDuration = Math.min(minimalDuration, duration);
+				maximalDuration = Math.max(maximalDuration, duration);
+			}
+		}
+	}
+
+	private void merge(LogStatistics other) {
+		numberOfTraces = numberOfTraces + other.numberOfTraces;
+		numberOfEvents = numberOfEvents + other.numberOfEvents;
+		minimalDuration = Math.min(minimalDuration, other.minimalDuration);
+		maximalDuration = Math.max(maximalDuration, other.maximalDuration);
+		minimalEventsPerTrace = Math.min(minimalEventsPerTrace, other.minimalEventsPerTrace);
+		maximalEventsPerTrace = Math.max(maximalEventsPerTrace, other.maximalEventsPerTrace);
+		caseIds.addAll(other.caseIds);
+		activities.addAll(other.activities);
+		activitiesWithLifecycle.addAll(other.activitiesWithLifecycle);
+		startActivities.addAll(other.startActivities);
+		startActivitiesWithLifecycle.addAll(other.startActivitiesWithLifecycle);
+		originators.addAll(other.originators);
+		lifecycleTransitions.addAll(other.lifecycleTransitions);
+		roles.addAll(other.roles);
+		groups.addAll(other.groups);
+	}
+
+	private static String value(XAttributeMap attributes, String key) {
+		XAttribute attribute = attributes.get(key);
+		if(attribute != null) {
+			return attribute.toString();
+		}
+		return null;
+	}
+
+	public int getNumberOfTraces() {
+		return numberOfTraces;
+	}
+
+	public int getNumberOfEvents() {
+		return numberOfEvents;
+	}
+
+	public double getEventsPerTrace() {
+		return numberOfEvents/(numberOfTraces*1.0);
+	}
+
+	/**
+	 * Returns the minimal duration of a trace, traces without timestamps are ignored
+	 */
+	public long getMinimalDuration() {
+		return minimalDuration;
+	}
+
+	/**
+	 * Returns the maximal duration of a trace, traces without timestamps are ignored
+	 */
+	public long getMaximalDuration() {
+		return maximalDuration;
+	}
+
+	public int getMinimalEventsPerTrace() {
+		return minimalEventsPerTrace;
+	}
+
+	public int getMaximalEventsPerTrace() {
+		return maximalEventsPerTrace;
+	}
+
+	public Set<String> getCaseIds() {
+		return Collections.unmodifiableSet(caseIds);
+	}
+
+	public Set<String> getActivities() {
+		return Collections.unmodifiableSet(activities);
+	}
+
+	/**
+	 * Returns all activities concatenated with the lifecycle transition. If a transition is missing only the activity is used.
+	 */
+	public Set<String> getActivitiesWithLifecycle() {
+		return Collections.unmodifiableSet(activitiesWithLifecycle);
+	}
+
+	public Set<String> getStartActivities() {
+		return Collections.unmodifiableSet(startActivities);
+	}
+
+	public Set<String> getStartActivitiesWithLifecycle() {
+		return Collections.unmodifiableSet(startActivitiesWithLifecycle);
+	}
+
+	public Set<String> getOriginators() {
+		return Collections.unmodifiableSet(originators);
+	}
+
+	public Set<String> getLifecycleTransitions() {
+		return Collections.unmodifiableSet(lifecycleTransitions);
+	}
+
+	public Set<String> getRoles() {
+		return Collections.unmodifiableSet(roles);
+	}
+
+	public Set<String> getGroups() {
+		return Collections.unmodifiableSet(groups);
+	}
+
+	@Override
+	public String toString() {
+		return "Traces: "+numberOfTraces+", Events: "+numberOfEvents+", Activities: "+activities.size()+", Originators: "+originators.size();
+	}
+
+}
@@ -1,26 +1,26 @@
 package parser;
 
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
 import org.deckfour.xes.extension.XExtension;
 import org.deckfour.xes.extension.std.XConceptExtension;
 import org.deckfour.xes.extension.std.XLifecycleExtension;
 import org.deckfour.xes.extension.std.XOrganizationalExtension;
-import org.deckfour.xes.extension.std.XTimeExtension;
 import org.deckfour.xes.model.XEvent;
 import org.deckfour.xes.model.XLog;
 import org.deckfour.xes.model.XTrace;
 
-import parser.classifier.ActivityClassifier;
+import com.google.common.collect.MapMaker;
+
 import parser.classifier.Prefix;
-import parser.organizational.RoleExtractor;
+import parser.organizational.RoleModel;
 
 /**
  * 
@@ -29,10 +29,51 @@ import parser.organizational.RoleExtractor;
  */
 public class Parser {
 	
+	//Statistics of the already parsed logs, the logs are compared by identity
+	private final static ConcurrentMap<XLog, LogStatistics> statistics = new MapMaker().weakKeys().makeMap();
+	//Variant indices of the already parsed logs
+	private final static ConcurrentMap<XLog, VariantIndex> variantIndices = new MapMaker().weakKeys().makeMap();
+	private final static ConcurrentMap<XLog, VariantIndex> variantIndicesWithLifecycle = new MapMaker().weakKeys().makeMap();
+	
 	public Parser() {
 		
 	}
 	
+	/**
+	 * Returns the statistics of a given log. The statistics are computed in a single pass and
+	 * cached as long as the log is in use. If the number of traces has changed the statistics are computed again.
+	 * 
+	 * @param log
+	 * @return statistics of the log
+	 */
+	public LogStatistics getStatistics(XLog log) {
+		LogStatistics logStatistics = statistics.get(log);
+		if(logStatistics == null || logStatistics.getNumberOfTraces() != log.size()) {
+			logStatistics = LogStatistics.compute(log);
+			statistics.put(log, logStatistics);
+		}
+		return logStatistics;
+	}
+	
+	/**
+	 * Returns the statistics of a log in columnar representation
+	 * @param log
+	 * @return statistics of the log
+	 */
+	public LogStatistics getStatistics(IntLog log) {
+		return LogStatistics.compute(log);
+	}
+	
+	/**
+	 * Removes the cached statistics and variant indices of a log. Has to be called if the traces of a log are modified in place.
+	 * @param log
+	 */
+	public void invalidate(XLog log) {
+		statistics.remove(log);
+		variantIndices.remove(log);
+		variantIndicesWithLifecycle.remove(log);
+	}
+	
 	/**
 	 * Returns a set with all case ids
 	 * 
@@ -40,14 +81,7 @@ public class Parser {
 	 * @return
 	 */
 	public Set<String> getCaseIds(XLog log) {
-		Set<String> caseIds = new HashSet<String>();
-		
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			XTrace currentTrace = logIterator.next();
-			caseIds.add(currentTrace.getAttributes().get(XConceptExtension.KEY_NAME).toString());
-		}
-		return caseIds;
+		return new HashSet<String>(getStatistics(log).getCaseIds());
 	}
 	
 	/**
@@ -56,15 +90,7 @@ public class Parser {
 	 * @return
 	 */
 	public int getNumberOfTraces(XLog log) {
-		int number = 0;
-		
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			number++;
-			logIterator.next();
-		}
-		
-		return number;
+		return getStatistics(log).getNumberOfTraces();
 	}
 	
 	/**
@@ -86,19 +112,7 @@ public class Parser {
 		Set<String> transitions = new HashSet<String>();
 		
 		if(checkNecessaryExtension(log, XLifecycleExtension.instance())) {
-			Iterator<XTrace> logIterator = log.iterator();
-			while(logIterator.hasNext()) {
-				XTrace currentTrace = logIterator.next();
-				Iterator<XEvent> traceIterator = currentTrace.iterator();
-				
-				while(traceIterator.hasNext()) {
-					XEvent currentEvent = traceIterator.next();
-					if(currentEvent.getAttributes().get(XLifecycleExtension.KEY_TRANSITION) != null) {
-						transitions.add(currentEvent.getAttributes().get(XLifecycleExtension.KEY_TRANSITION).toString());
-					}
-				}
-			}
-			
+			transitions.addAll(getStatistics(log).getLifecycleTransitions());
 		}
 		else {
 			System.err.println("Log does not support lifecyle extension!");
@@ -117,25 +131,14 @@ public class Parser {
 	}
 	
 	/**
-	 * Returns all roles with all participants of the roles. 
+	 * Returns all roles with all participants of the roles. The roles are taken from the cached role model of the log.
 	 * 
 	 * @param log			Given event log
 	 * @param lifecyle		If true the lifecycle is considered otherwise the lifecycle is ignored
 	 * @return
 	 */
 	public Map<String, Set<String>> extractRoles(XLog log, boolean lifecyle) {
-		RoleExtractor roleExtractor = new RoleExtractor();
-		
-		Map<String, Integer[]> profiles = null;
-		if(lifecyle == false) {
-			profiles = 	roleExtractor.extractProfiles(log, false);
-		}
-		else {
-			profiles = 	roleExtractor.extractProfiles(log, true);
-		}
-		Map<String, Set<String>> roles = roleExtractor.extractRoles(profiles, 0.85);
-		
-		return roles;
+		return new HashMap<String, Set<String>>(RoleModel.get(log, lifecyle).getRoles());
 	}
 	
 	/**
@@ -145,22 +148,7 @@ public class Parser {
 	 * @return
 	 */
 	public Set<String> getRolesFromEventLog(XLog log) {
-		Set<String> roles = new HashSet<String>();
-		
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			XTrace currentTrace = logIterator.next();
-			Iterator<XEvent> traceIterator = currentTrace.iterator();
-			
-			while(traceIterator.hasNext()) {
-				XEvent currentEvent = traceIterator.next();
-				String role = XOrganizationalExtension.instance().extractRole(currentEvent);
-				if(role != null) {
-					roles.add(role);
-				}
-			}
-		}
-		return roles;
+		return new HashSet<String>(getStatistics(log).getRoles());
 	}
 	
 	/**
@@ -169,22 +157,7 @@ public class Parser {
 	 * @return set of groups
 	 */
 	public Set<String> getGroups(XLog log) {
-		Set<String> groups = new HashSet<String>();
-		
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			XTrace currentTrace = logIterator.next();
-			Iterator<XEvent> traceIterator = currentTrace.iterator();
-			
-			while(traceIterator.hasNext()) {
-				XEvent currentEvent = traceIterator.next();
-				if(currentEvent.getAttributes().get(XOrganizationalExtension.KEY_GROUP) != null) {
-					groups.add(currentEvent.getAttributes().get(XOrganizationalExtension.KEY_GROUP).toString());
-				}
-			}
-		}
-		return groups;
-		
+		return new HashSet<String>(getStatistics(log).getGroups());
 	}
 	
 	/**
@@ -193,40 +166,7 @@ public class Parser {
 	 * @return minimal duration of a trace
 	 */
 	public long getMinimalDuration(XLog log) {
-		long minimalDuration = Long.MAX_VALUE;
-		
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			XTrace currentTrace = logIterator.next();
-			Iterator<XEvent> traceIterator = currentTrace.iterator();
-			
-			boolean first = true;
-			Date firstTimestamp = null;
-			Date lastTimestamp = null;
-			while(traceIterator.hasNext()) {
-				XEvent currentEvent = traceIterator.next();
-				if(first == true) {
-					firstTimestamp = XTimeExtension.instance().extractTimestamp(currentEvent);
-					//Fuer den Fall das Trace nur aus einem Event besteht.
-					if(currentTrace.size() == 1) {
-						lastTimestamp = XTimeExtension.instance().extractTimestamp(currentEvent);
-					}
-					first = false;
-					continue;
-				}
-				else {
-					lastTimestamp = XTimeExtension.instance().extractTimestamp(currentEvent);
-				}				
-			}
-			
-			long duration = lastTimestamp.getTime()-firstTimestamp.getTime();
-			if(duration < minimalDuration) {
-				minimalDuration = duration;
-			}
-		}
-		
-		return minimalDuration;
-	
+		return getStatistics(log).getMinimalDuration();
 	}
 	
 	/**
@@ -235,36 +175,7 @@ public class Parser {
 	 * @return maximal duration of a trace
 	 */
 	public long getMaximalDuration(XLog log) {
-		long maximalDuration = Long.MIN_VALUE;
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			XTrace currentTrace = logIterator.next();
-			Iterator<XEvent> traceIterator = currentTrace.iterator();
-			
-			boolean first = true;
-			Date firstTimestamp = null;
-			Date lastTimestamp = null;
-			while(traceIterator.hasNext()) {
-				XEvent currentEvent = traceIterator.next();
-				if(first == true) {
-					firstTimestamp = XTimeExtension.instance().extractTimestamp(currentEvent);
-					//Fuer den Fall das Trace nur aus einem Event besteht.
-					if(currentTrace.size() == 1) {
-						lastTimestamp = XTimeExtension.instance().extractTimestamp(currentEvent);
-					}					
-					first = false;
-					continue;
-				}
-				else {
-					lastTimestamp = XTimeExtension.instance().extractTimestamp(currentEvent);
-				}
-			}
-			long duration = lastTimestamp.getTime()-firstTimestamp.getTime();
-			if(duration > maximalDuration) {
-				maximalDuration = duration;
-			}
-		}
-		return maximalDuration;
+		return getStatistics(log).getMaximalDuration();
 	}
 	
 	/**
@@ -273,19 +184,7 @@ public class Parser {
 	 * @return number of events in the event log
 	 */
 	public int getNumberOfEvents(XLog log) {
-		int numberOfEvents = 0;
-		
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			XTrace currentTrace = logIterator.next();
-			Iterator<XEvent> traceIterator = currentTrace.iterator();
-			
-			while(traceIterator.hasNext()) {
-				traceIterator.next();
-				numberOfEvents++;
-			}
-		}
-		return numberOfEvents;
+		return getStatistics(log).getNumberOfEvents();
 	}
 	
 	/**
@@ -294,7 +193,7 @@ public class Parser {
 	 * @return events per trace
 	 */
 	public double getEventsPerTrace(XLog log) {
-		return getNumberOfEvents(log)/(getNumberOfTraces(log)*1.0);
+		return getStatistics(log).getEventsPerTrace();
 	}
 	
 	/**
@@ -303,24 +202,7 @@ public class Parser {
 	 * @return length of the shortest trace
 	 */
 	public int getMinimalEventsPerTrace(XLog log) {
-		int minimum = Integer.MAX_VALUE;
-		
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			int lengthOfTrace = 0;
-			XTrace currentTrace = logIterator.next();
-			Iterator<XEvent> traceIterator = currentTrace.iterator();
-			
-			while(traceIterator.hasNext()) {
-				traceIterator.next();
-				lengthOfTrace++;
-			}
-			
-			if(lengthOfTrace < minimum) {
-				minimum = lengthOfTrace;
-			}
-		}
-		return minimum;
+		return getStatistics(log).getMinimalEventsPerTrace();
 	}
 	
 	/**
@@ -329,24 +211,7 @@ public class Parser {
 	 * @return length of the longest trace
 	 */
 	public int getMaximalEventsPerTrace(XLog log) {
-		int maximum = Integer.MIN_VALUE;
-		
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			int lengthOfTrace = 0;
-			XTrace currentTrace = logIterator.next();
-			Iterator<XEvent> traceIterator = currentTrace.iterator();
-			
-			while(traceIterator.hasNext()) {
-				traceIterator.next();
-				lengthOfTrace++;
-			}
-			
-			if(lengthOfTrace > maximum) {
-				maximum = lengthOfTrace;
-			}
-		}
-		return maximum;
+		return getStatistics(log).getMaximalEventsPerTrace();
 	}
 	
 	/**
@@ -355,20 +220,7 @@ public class Parser {
 	 * @return set of occuring activities
 	 */
 	public Set<String> getActivities(XLog log) {
-		Set<String> activities = new HashSet<String>();
-		
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			XTrace currentTrace = logIterator.next();
-			Iterator<XEvent> traceIterator = currentTrace.iterator();
-			
-			while(traceIterator.hasNext()) {
-				XEvent currentEvent = traceIterator.next();
-				activities.add(currentEvent.getAttributes().get(XConceptExtension.KEY_NAME).toString());
-			}
-		}
-		
-		return activities;
+		return new HashSet<String>(getStatistics(log).getActivities());
 	}
 	
 	/** 
@@ -377,26 +229,7 @@ public class Parser {
 	 * @return set of activities (with lifecycle)
 	 */
 	public Set<String> getActivitiesWithLifecycle(XLog log) {
-		Set<String> activities = new HashSet<String>();
-		
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			XTrace currentTrace = logIterator.next();
-			Iterator<XEvent> traceIterator = currentTrace.iterator();
-				
-			while(traceIterator.hasNext()) {
-				XEvent currentEvent = traceIterator.next();
-				String lifecycle = currentEvent.getAttributes().get(XLifecycleExtension.KEY_TRANSITION).toString();
-				String activity = currentEvent.getAttributes().get(XConceptExtension.KEY_NAME).toString();
-				if(lifecycle != null) {
-					activities.add(activity+"-"+lifecycle);
-				}
-				else {
-					activities.add(activity);
-				}
-			}
-		}
-		return activities;
+		return new HashSet<String>(getStatistics(log).getActivitiesWithLifecycle());
 	}
 	
 	/**
@@ -405,22 +238,23 @@ public class Parser {
 	 * @return all executing resources in the event log
 	 */
 	public Set<String> getOriginators(XLog log) {
-		Set<String> originators = new HashSet<String>();
-		
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			XTrace currentTrace = logIterator.next();
-			Iterator<XEvent> traceIterator = currentTrace.iterator();
-			
-			while(traceIterator.hasNext()) {
-				XEvent currentEvent = traceIterator.next();
-				if(currentEvent.getAttributes().get(XOrganizationalExtension.KEY_RESOURCE) != null) {
-					originators.add(currentEvent.getAttributes().get(XOrganizationalExtension.KEY_RESOURCE).toString());
-				}
-			}
-		}
-		
-		return originators;
+		return new HashSet<String>(getStatistics(log).getOriginators());
+	}
+	
+	/**
+	 * Returns the index that maps the traces of a log to their variants. The index is built in a single pass and
+	 * cached as long as the log is in use. If the number of traces has changed the index is built again.
+	 * @param log
+	 * @param lifecycle		If true the lifecycle of the activities is considered
+	 */
+	public VariantIndex getVariantIndex(XLog log, boolean lifecycle) {
+		ConcurrentMap<XLog, VariantIndex> indices = lifecycle ? variantIndicesWithLifecycle : variantIndices;
+		VariantIndex index = indices.get(log);
+		if(index == null || index.getNumberOfTraces() != log.size()) {
+			index = VariantIndex.build(log, lifecycle);
+			indices.put(log, index);
+		}
+		return index;
 	}
 	
 	/**
@@ -429,23 +263,7 @@ public class Parser {
 	 * @return Set of the variant
 	 */
 	public Set<TraceVariant> getTraceVariants(XLog log) {
-		Set<TraceVariant> variants = new HashSet<TraceVariant>();
-		
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			XTrace currentTrace = logIterator.next();
-			Iterator<XEvent> traceIterator = currentTrace.iterator();
-			
-			TraceVariant variant = new TraceVariant();
-			while(traceIterator.hasNext()) {
-				XEvent currentEvent = traceIterator.next();
-				ActivityClassifier classifier = new ActivityClassifier(currentEvent.getAttributes().get(XConceptExtension.KEY_NAME).toString());
-				variant.addEvent(classifier);
-			}
-			variants.add(variant);
-		}
-		
-		return variants;
+		return new HashSet<TraceVariant>(getVariantIndex(log, false).getCountedVariants().keySet());
 	}
 	
 	/**
@@ -453,33 +271,7 @@ public class Parser {
 	 * @param log
 	 */
 	public Set<TraceVariant> getTraceVariantsWithLifecycle(XLog log) {
-		Set<TraceVariant> variants = new HashSet<TraceVariant>();
-		
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			XTrace currentTrace = logIterator.next();
-			Iterator<XEvent> traceIterator = currentTrace.iterator();
-			
-			TraceVariant variant = new TraceVariant();
-			while(traceIterator.hasNext()) {
-				XEvent currentEvent = traceIterator.next();
-				
-				String lifecycle = currentEvent.getAttributes().get(XLifecycleExtension.KEY_TRANSITION).toString();
-				String activity = currentEvent.getAttributes().get(XConceptExtension.KEY_NAME).toString();
-				
-				ActivityClassifier classifier = null;
-				if(lifecycle != null) {
-					classifier = new ActivityClassifier(activity+"-"+lifecycle);
-				}
-				else {
-					classifier = new ActivityClassifier(activity);
-				}
-				variant.addEvent(classifier);
-			}
-			variants.add(variant);
-		}
-		
-		return variants;
+		return new HashSet<TraceVariant>(getVariantIndex(log, true).getCountedVariants().keySet());
 	}
 	
 	/**
@@ -488,30 +280,7 @@ public class Parser {
 	 * @param lifecycle
 	 */
 	public Map<TraceVariant, Integer> getCountedTraceVariants(XLog log) {
-		Map<TraceVariant, Integer> countedVariants = new HashMap<TraceVariant, Integer>();
-		
-		Set<TraceVariant> variants = getTraceVariants(log);
-		
-		for(TraceVariant variant : variants) {
-			countedVariants.put(variant, new Integer(0));
-		}
-		
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			XTrace currentTrace = logIterator.next();
-			Iterator<XEvent> traceIterator = currentTrace.iterator();
-			
-			TraceVariant variant = new TraceVariant();
-			while(traceIterator.hasNext()) {
-				XEvent currentEvent = traceIterator.next();
-				ActivityClassifier classifier = new ActivityClassifier(currentEvent.getAttributes().get(XConceptExtension.KEY_NAME).toString());
-				variant.addEvent(classifier);
-			}
-			
-			countedVariants.put(variant, countedVariants.get(variant)+1);
-		}
-		
-		return countedVariants;
+		return getVariantIndex(log, false).getCountedVariants();
 	}
 	
 	/**
@@ -520,38 +289,7 @@ public class Parser {
 	 * @param lifecycle
 	 */
 	public Map<TraceVariant, Integer> getCountedTraceVariantsWithLifecycle(XLog log) {
-		Map<TraceVariant, Integer> countedVariants = new HashMap<TraceVariant, Integer>();
-		
-		Set<TraceVariant> variants = getTraceVariantsWithLifecycle(log);
-		
-		for(TraceVariant variant : variants) {
-			countedVariants.put(variant, new Integer(0));
-		}
-		
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			XTrace currentTrace = logIterator.next();
-			Iterator<XEvent> traceIterator = currentTrace.iterator();
-			
-			TraceVariant variant = new TraceVariant();
-			while(traceIterator.hasNext()) {
-				XEvent currentEvent = traceIterator.next();
-				String lifecycle = currentEvent.getAttributes().get(XLifecycleExtension.KEY_TRANSITION).toString();
-				String activity = currentEvent.getAttributes().get(XConceptExtension.KEY_NAME).toString();
-				
-				ActivityClassifier classifier = null;
-				if(lifecycle != null) {
-					classifier = new ActivityClassifier(activity+"-"+lifecycle);
-				}
-				else {
-					classifier = new ActivityClassifier(activity);
-				}				variant.addEvent(classifier);
-			}
-			
-			countedVariants.put(variant, countedVariants.get(variant)+1);
-		}
-		
-		return countedVariants;
+		return getVariantIndex(log, true).getCountedVariants();
 	}
 	
 	/**
@@ -560,38 +298,34 @@ public class Parser {
 	 * @param lifecycle
 	 */
 	public Set<Prefix> getPrefixes(XLog log, boolean lifecycle) {
-		Set<Prefix> prefixes = new HashSet<Prefix>();
-		
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			XTrace currentTrace = logIterator.next();
-			Iterator<XEvent> traceIterator = currentTrace.iterator();
-			Prefix p = new Prefix();
-			while(traceIterator.hasNext()) {
-				XEvent currentEvent = traceIterator.next();
-				
-				if(lifecycle == true) {
-					String transition = currentEvent.getAttributes().get(XLifecycleExtension.KEY_TRANSITION).toString();
-					if(transition == null) {
-						transition="";
-					}
-					String activity = currentEvent.getAttributes().get(XConceptExtension.KEY_NAME).toString();
-					p.append(activity+"-"+transition);
-				}
-				else {
-					String activity = currentEvent.getAttributes().get(XConceptExtension.KEY_NAME).toString();
-					p.append(activity);		
-				}
-				
-				Prefix nextPrefix = new Prefix();
-				nextPrefix.setPrefix(new ArrayList<String>(p.getPrefix()));
-				
-				prefixes.add(nextPrefix);
-				
-			}
-		}
-		
-		return prefixes;
+		return PrefixTree.build(log, lifecycle).getPrefixes();
+	}
+	
+	/**
+	 * Count the number of occurence of each TraceVariant in a log in columnar representation
+	 * @param log
+	 * @param lifecycle		If true the lifecycle of the activities is considered
+	 */
+	public Map<TraceVariant, Integer> getCountedTraceVariants(IntLog log, boolean lifecycle) {
+		return VariantIndex.build(log, lifecycle).getCountedVariants();
+	}
+	
+	/**
+	 * Returns a set of TraceVariants of a log in columnar representation
+	 * @param log
+	 * @param lifecycle		If true the lifecycle of the activities is considered
+	 */
+	public Set<TraceVariant> getTraceVariants(IntLog log, boolean lifecycle) {
+		return new HashSet<TraceVariant>(getCountedTraceVariants(log, lifecycle).keySet());
+	}
+	
+	/**
+	 * Extracts all prefixes of a log in columnar representation
+	 * @param log
+	 * @param lifecycle
+	 */
+	public Set<Prefix> getPrefixes(IntLog log, boolean lifecycle) {
+		return PrefixTree.build(log, lifecycle).getPrefixes();
 	}
 	
 	/**
@@ -599,20 +333,7 @@ public class Parser {
 	 * @param log
 	 */
 	public Set<String> getStartActivities(XLog log) {
-		Set<String> startActivities = new HashSet<String>();
-		
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			XTrace currentTrace = logIterator.next();
-			Iterator<XEvent> traceIterator = currentTrace.iterator();
-			while(traceIterator.hasNext()) {
-				XEvent currentEvent = traceIterator.next();
-				startActivities.add(currentEvent.getAttributes().get(XConceptExtension.KEY_NAME).toString());
-				break;
-			}
-			
-		}
-		return startActivities;
+		return new HashSet<String>(getStatistics(log).getStartActivities());
 	}
 	
 	/**
@@ -620,23 +341,7 @@ public class Parser {
 	 * @param log
 	 */
 	public Set<String> getStartActivitiesWithLifecycle(XLog log) {
-		Set<String> startActivities = new HashSet<String>();
-		
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			XTrace currentTrace = logIterator.next();
-			Iterator<XEvent> traceIterator = currentTrace.iterator();
-			while(traceIterator.hasNext()) {
-				XEvent currentEvent = traceIterator.next();
-				String activity = currentEvent.getAttributes().get(XConceptExtension.KEY_NAME).toString();
-				String lifecycle = currentEvent.getAttributes().get(XLifecycleExtension.KEY_TRANSITION).toString();
-				startActivities.add(activity+"-"+lifecycle);
-				break;
-			}
-			
-		}
-		return startActivities;
-		
+		return new HashSet<String>(getStatistics(log).getStartActivitiesWithLifecycle());
 	}
 	
 	/**
@@ -651,22 +356,12 @@ public class Parser {
 			distribution.put(e, new DistributionObject(0.0, 0));
 		}
 		
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			XTrace currentTrace = logIterator.next();
-			Iterator<XEvent> traceIterator = currentTrace.iterator();
-			
-			TraceVariant tempVariant = new TraceVariant();
-			while(traceIterator.hasNext()) {
-				XEvent currentEvent = traceIterator.next();
-				ActivityClassifier classifier = new ActivityClassifier(currentEvent.getAttributes().get(XConceptExtension.KEY_NAME).toString());
-				tempVariant.addEvent(classifier);
-			}
-			
-			if(distribution.keySet().contains(tempVariant)) {
-				DistributionObject oldValue = distribution.get(tempVariant);
-				DistributionObject newValue = new DistributionObject(oldValue.getRelativeFrequency(), oldValue.getNumber()+1);
-				distribution.put(tempVariant, newValue);
+		VariantIndex index = getVariantIndex(log, false);
+		int size = getNumberOfTraces(log);
+		for(int v = 0; v < index.getNumberOfVariants(); v++) {
+			TraceVariant variant = index.getTraceVariant(v);
+			if(distribution.containsKey(variant)) {
+				distribution.put(variant, new DistributionObject(index.getCount(v)/(size*1.0), index.getCount(v)));
 			}
 			else {
 				System.err.println("Fehler: Element gibt es in dieser Distribution nicht");
@@ -674,13 +369,6 @@ public class Parser {
 			}
 		}
 		
-		int size = getNumberOfTraces(log);
-		for(TraceVariant e : distribution.keySet()) {
-			DistributionObject oldValue = distribution.get(e);
-			DistributionObject newValue = new DistributionObject(oldValue.getNumber()/(size*1.0), oldValue.getNumber());
-			distribution.put(e, newValue);
-		}
-		
 		return distribution;
 	}
 	
@@ -722,21 +410,7 @@ public class Parser {
 		List<ActivityRoleTuple> pairs = new ArrayList<ActivityRoleTuple>();
 		
 		
-		Map<String, Set<String>> roleOriginatorMap = null;
-		if(lifecycle == false) {
-			roleOriginatorMap = extractRoles(log, false);
-		}
-		else {
-			roleOriginatorMap = extractRoles(log, true);
-		}
-		Map<String, String> originatorRoleMap = new HashMap<String, String>();
-		
-		for(String s : roleOriginatorMap.keySet()) {
-			Set<String> participantsOfRole = roleOriginatorMap.get(s);
-			for(String originator : participantsOfRole) {
-				originatorRoleMap.put(originator, s);
-			}
-		}
+		Map<String, String> originatorRoleMap = RoleModel.get(log, lifecycle).getOriginatorRoleMap();
 		
 		Iterator<XTrace> logIterator = log.iterator();
 		while(logIterator.hasNext()) {
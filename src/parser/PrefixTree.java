@@ -0,0 +1,364 @@
+package parser;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.deckfour.xes.model.XEvent;
+import org.deckfour.xes.model.XLog;
+import org.deckfour.xes.model.XTrace;
+
+import parser.classifier.Prefix;
+
+/**
+ * Prefix tree (trie) over the activities of the traces of a log. Each node represents a distinct prefix and
+ * counts the number of traces that contain the prefix. The nodes are stored in flat arrays, the children of a node
+ * are found via a hash table, so that the memory is proportional to the number of distinct prefixes.
+ * Traces can be added and removed, the sum of c*log(c) over all counts is kept up to date, so that the
+ * prefix entropy is available in constant time.
+ *
+ * @author Martin Kaeppel
+ */
+public class PrefixTree {
+	//Node of the empty prefix
+	public final static int ROOT = 0;
+	//Value that is returned for missing nodes
+	public final static int NO_NODE = -1;
+
+	private Dictionary dictionary;
+	private int size;
+	private int[] activities;
+	private int[] parents;
+	private int[] depths;
+	private int[] counts;
+	//Number of traces that end at the node, only these traces can be removed
+	private int[] ends;
+	private long numberOfEvents;
+	private int numberOfPrefixes;
+	//Sum of c*log(c) over the counts c of all prefixes
+	private double countLogCount;
+
+	//Hash table that maps (parent, activity) to the child node
+	private long[] childKeys;
+	private int[] childNodes;
+
+	public PrefixTree(Dictionary dictionary) {
+		this.dictionary = dictionary;
+		this.activities = new int[64];
+		this.parents = new int[64];
+		this.depths = new int[64];
+		this.counts = new int[64];
+		this.ends = new int[64];
+		this.childKeys = new long[128];
+		this.childNodes = new int[128];
+		Arrays.fill(childNodes, NO_NODE);
+		activities[ROOT] = Dictionary.NO_VALUE;
+		parents[ROOT] = NO_NODE;
+		size = 1;
+	}
+
+	/**
+	 * Builds the prefix tree of a given event log in a single pass
+	 * @param log
+	 * @param lifecycle		If true the activities are concatenated with the lifecycle transition
+	 */
+	public static PrefixTree build(XLog log, boolean lifecycle) {
+		PrefixTree tree = new PrefixTree(new Dictionary());
+		for(XTrace trace : log) {
+			tree.addTrace(trace, lifecycle);
+		}
+		return tree;
+	}
+
+	/**
+	 * Builds the prefix tree of a log in columnar representation. The dictionary of the log is used.
+	 * @param log
+	 * @param lifecycle		If true the activities are concatenated with the lifecycle transition
+	 */
+	public static PrefixTree build(IntLog log, boolean lifecycle) {
+		PrefixTree tree = new PrefixTree(log.getActivityDictionary(lifecycle));
+		for(int t = 0; t < log.getNumberOfTraces(); t++) {
+			int node = ROOT;
+			for(int e = log.getTraceStart(t); e < log.getTraceEnd(t); e++) {
+				node = tree.getOrCreateChild(node, log.getActivity(e, lifecycle));
+				tree.increment(node);
+			}
+			tree.ends[node]++;
+			tree.numberOfEvents = tree.numberOfEvents + log.getTraceLength(t);
+		}
+		return tree;
+	}
+
+	/**
+	 * Adds all prefixes of a trace
+	 * @return node of the complete trace
+	 */
+	public int addTrace(XTrace trace, boolean lifecycle) {
+		int node = ROOT;
+		for(XEvent event : trace) {
+			node = getOrCreateChild(node, dictionary.intern(VariantIndex.getActivity(event, lifecycle)));
+			increment(node);
+		}
+		ends[node]++;
+		numberOfEvents = numberOfEvents + trace.size();
+		return node;
+	}
+
+	/**
+	 * Adds all prefixes of a sequence of activity ids
+	 * @return node of the complete sequence
+	 */
+	public int addTrace(IntSequence sequence) {
+		int node = ROOT;
+		for(int i = 0; i < sequence.length(); i++) {
+			node = getOrCreateChild(node, sequence.get(i));
+			increment(node);
+		}
+		ends[node]++;
+		numberOfEvents = numberOfEvents + sequence.length();
+		return node;
+	}
+
+	/**
+	 * Removes all prefixes of a trace that was added before
+	 * @return true if the trace was removed, false if the tree does not contain the trace
+	 */
+	public boolean removeTrace(XTrace trace, boolean lifecycle) {
+		int[] sequence = new int[trace.size()];
+		int i = 0;
+		for(XEvent event : trace) {
+			String activity = VariantIndex.getActivity(event, lifecycle);
+			sequence[i] = activity == null ? Dictionary.NO_VALUE : dictionary.getId(activity);
+			if(activity != null && sequence[i] == Dictionary.NO_VALUE) {
+				return false;
+			}
+			i++;
+		}
+		return removeTrace(new IntSequence(sequence));
+	}
+
+	/**
+	 * Removes all prefixes of a sequence of activity ids that was added before
+	 * @return true if the sequence was removed, false if the tree does not contain the sequence
+	 */
+	public boolean removeTrace(IntSequence sequence) {
+		//The path is checked first, so that the tree is not modified if the sequence is not contained
+		int[] path = new int[sequence.length()];
+		int node = ROOT;
+		for(int i = 0; i < sequence.length(); i++) {
+			node = getChild(node, sequence.get(i));
+			if(node == NO_NODE || counts[node] == 0) {
+				return false;
+			}
+			path[i] = node;
+		}
+		//A prefix of an added trace is not contained if no added trace ends there
+		if(ends[node] == 0) {
+			return false;
+		}
+		ends[node]--;
+		for(int i = 0; i < path.length; i++) {
+			decrement(path[i]);
+		}
+		numberOfEvents = numberOfEvents - sequence.length();
+		return true;
+	}
+
+	private void increment(int node) {
+		int count = counts[node];
+		if(count == 0) {
+			numberOfPrefixes++;
+		}
+		countLogCount = countLogCount + xLogX(count+1) - xLogX(count);
+		counts[node] = count+1;
+	}
+
+	private void decrement(int node) {
+		int count = counts[node];
+		if(count == 1) {
+			numberOfPrefixes--;
+		}
+		countLogCount = countLogCount + xLogX(count-1) - xLogX(count);
+		counts[node] = count-1;
+	}
+
+	private static double xLogX(int x) {
+		if(x <= 1) {
+			return 0;
+		}
+		return x*Math.log(x);
+	}
+
+	/**
+	 * Returns the child of a node for the given activity
+	 * @return child or NO_NODE if the prefix does not exist
+	 */
+	public int getChild(int node, int activity) {
+		int slot = findSlot(key(node, activity));
+		return childNodes[slot];
+	}
+
+	/**
+	 * Returns the child of a node for the given activity, if necessary the child is created
+	 */
+	public int getOrCreateChild(int node, int activity) {
+		long key = key(node, activity);
+		int slot = findSlot(key);
+		if(childNodes[slot] != NO_NODE) {
+			return childNodes[slot];
+		}
+
+		if(size == activities.length) {
+			int capacity = 2*activities.length;
+			activities = Arrays.copyOf(activities, capacity);
+			parents = Arrays.copyOf(parents, capacity);
+			depths = Arrays.copyOf(depths, capacity);
+			counts = Arrays.copyOf(counts, capacity);
+			ends = Arrays.copyOf(ends, capacity);
+		}
+		int child = size;
+		size++;
+		activities[child] = activity;
+		parents[child] = node;
+		depths[child] = depths[node]+1;
+
+		childKeys[slot] = key;
+		childNodes[slot] = child;
+		//The load factor of the hash table is kept below 0.5
+		if(2*size > childNodes.length) {
+			rehash();
+		}
+		return child;
+	}
+
+	private static long key(int node, int activity) {
+		return ((long) node << 32) | (activity & 0xFFFFFFFFL);
+	}
+
+	private int findSlot(long key) {
+		int mask = childNodes.length-1;
+		int slot = (int) mix(key) & mask;
+		while(childNodes[slot] != NO_NODE && childKeys[slot] != key) {
+			slot = (slot+1) & mask;
+		}
+		return slot;
+	}
+
+	private static long mix(long key) {
+		key = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+		return key ^ (key >>> 33);
+	}
+
+	private void rehash() {
+		long[] oldKeys = childKeys;
+		int[] oldNodes = childNodes;
+		childKeys = new long[2*oldKeys.length];
+		childNodes = new int[2*oldNodes.length];
+		Arrays.fill(childNodes, NO_NODE);
+		for(int i = 0; i < oldNodes.length; i++) {
+			if(oldNodes[i] != NO_NODE) {
+				int slot = findSlot(oldKeys[i]);
+				childKeys[slot] = oldKeys[i];
+				childNodes[slot] = oldNodes[i];
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of distinct prefixes of the contained traces (the empty prefix is not counted)
+	 */
+	public int getNumberOfPrefixes() {
+		return numberOfPrefixes;
+	}
+
+	/**
+	 * Returns the summed up counts of all prefixes, which is the number of events of the added traces
+	 */
+	public long getNumberOfEvents() {
+		return numberOfEvents;
+	}
+
+	/**
+	 * Returns the number of traces that contain the prefix of the node
+	 */
+	public int getCount(int node) {
+		return counts[node];
+	}
+
+	/**
+	 * Returns the id of the last activity of the prefix of the node
+	 */
+	public int getActivity(int node) {
+		return activities[node];
+	}
+
+	public int getParent(int node) {
+		return parents[node];
+	}
+
+	/**
+	 * Returns the length of the prefix of the node
+	 */
+	public int getDepth(int node) {
+		return depths[node];
+	}
+
+	public Dictionary getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * Returns the prefix entropy, i.e. the entropy of the distribution of the prefixes weighted by their occurrences.
+	 * With N events and the counts c of the prefixes the entropy is log(N) - sum(c*log(c))/N.
+	 */
+	public double getEntropy() {
+		if(numberOfEvents == 0) {
+			return 0;
+		}
+		return Math.log(numberOfEvents)-countLogCount/numberOfEvents;
+	}
+
+	/**
+	 * Returns the prefix of a node
+	 */
+	public Prefix getPrefix(int node) {
+		String[] elements = new String[depths[node]];
+		for(int current = node; current != ROOT; current = parents[current]) {
+			elements[depths[current]-1] = dictionary.get(activities[current]);
+		}
+		return new Prefix(Arrays.asList(elements));
+	}
+
+	/**
+	 * Returns all prefixes that occur in the added traces
+	 */
+	public Set<Prefix> getPrefixes() {
+		return new HashSet<Prefix>(getCountedPrefixes().keySet());
+	}
+
+	/**
+	 * Returns all prefixes that occur in the added traces and the number of traces that contain them
+	 */
+	public Map<Prefix, Integer> getCountedPrefixes() {
+		Map<Prefix, Integer> prefixes = new HashMap<Prefix, Integer>();
+		//The nodes are created after their parents, so the prefix of the parent is always known
+		Prefix[] nodePrefixes = new Prefix[size];
+		nodePrefixes[ROOT] = new Prefix(Collections.<String>emptyList());
+		for(int node = 1; node < size; node++) {
+			nodePrefixes[node] = nodePrefixes[parents[node]].append(dictionary.get(activities[node]));
+			if(counts[node] > 0) {
+				prefixes.put(nodePrefixes[node], counts[node]);
+			}
+		}
+		return prefixes;
+	}
+
+	@Override
+	public String toString() {
+		return "Prefixes: "+getNumberOfPrefixes()+", Events: "+numberOfEvents;
+	}
+
+}
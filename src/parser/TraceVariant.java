@@ -1,22 +1,25 @@
 package parser;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import parser.classifier.Classifier;
 /**
  * This class defines the concept of a trace variant. Traces are considered as equal with regard to different criteria.
+ * Trace variants are immutable, the hash code is computed once.
  * @author Martin Kaeppel
  */
 public class TraceVariant {
-	List<Classifier> events = new ArrayList<Classifier>();
+	private final List<Classifier> events;
+	private final int hash;
 	
-	public TraceVariant() {
-		
-	}
-	
-	public void addEvent(Classifier classifier) {
-		events.add(classifier);
+	/**
+	 * @param events	Classified events of the variant, the list is copied
+	 */
+	public TraceVariant(List<? extends Classifier> events) {
+		this.events = Collections.unmodifiableList(new ArrayList<Classifier>(events));
+		this.hash = this.events.hashCode();
 	}
 	
 	public List<Classifier> getEvents() {
@@ -30,13 +33,13 @@ public class TraceVariant {
 		}
 		else {
 			TraceVariant c = (TraceVariant) o;
-			return (events.equals(c.getEvents()));
+			return hash == c.hash && events.equals(c.getEvents());
 		}
 	}
 
 	@Override
 	public int hashCode() {
-		return 0;
+		return hash;
 	}
 	
 	public String toString() {
@@ -0,0 +1,231 @@
+package parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.deckfour.xes.extension.std.XConceptExtension;
+import org.deckfour.xes.extension.std.XLifecycleExtension;
+import org.deckfour.xes.model.XAttribute;
+import org.deckfour.xes.model.XAttributeMap;
+import org.deckfour.xes.model.XEvent;
+import org.deckfour.xes.model.XLog;
+import org.deckfour.xes.model.XTrace;
+
+import parser.classifier.ActivityClassifier;
+
+/**
+ * Maps each trace of a log to the id of its trace variant. The activities are interned into a dictionary,
+ * so that the variants are identified by their int sequences in a single pass over the log.
+ * The variant ids are assigned in the order of the first occurrence.
+ *
+ * @author Martin Kaeppel
+ */
+public class VariantIndex {
+	private int[] traceVariants;
+	private List<IntSequence> sequences = new ArrayList<IntSequence>();
+	private int[] counts;
+	private int[] firstTraces;
+	private Dictionary dictionary;
+	private TraceVariant[] variants;
+
+	private VariantIndex(int numberOfTraces, Dictionary dictionary) {
+		this.traceVariants = new int[numberOfTraces];
+		this.dictionary = dictionary;
+	}
+
+	/**
+	 * Builds the index of a given event log
+	 * @param log
+	 * @param lifecycle		If true the activities are concatenated with the lifecycle transition
+	 * @return index of the log
+	 */
+	public static VariantIndex build(XLog log, boolean lifecycle) {
+		VariantIndex index = new VariantIndex(log.size(), new Dictionary());
+		Map<IntSequence, Integer> ids = new HashMap<IntSequence, Integer>();
+		int[] buffer = new int[16];
+		int t = 0;
+		for(XTrace trace : log) {
+			if(buffer.length < trace.size()) {
+				buffer = new int[Math.max(trace.size(), 2*buffer.length)];
+			}
+			int e = 0;
+			for(XEvent event : trace) {
+				buffer[e] = index.dictionary.intern(getActivity(event, lifecycle));
+				e++;
+			}
+			index.add(ids, t, new IntSequence(buffer, 0, e));
+			t++;
+		}
+		index.finish();
+		return index;
+	}
+
+	/**
+	 * Builds the index of a log in columnar representation. The dictionary of the log is used.
+	 * @param log
+	 * @param lifecycle		If true the activities are concatenated with the lifecycle transition
+	 * @return index of the log
+	 */
+	public static VariantIndex build(IntLog log, boolean lifecycle) {
+		VariantIndex index = new VariantIndex(log.getNumberOfTraces(), log.getActivityDictionary(lifecycle));
+		Map<IntSequence, Integer> ids = new HashMap<IntSequence, Integer>();
+		for(int t = 0; t < log.getNumberOfTraces(); t++) {
+			index.add(ids, t, log.getActivitySequence(t, lifecycle));
+		}
+		index.finish();
+		return index;
+	}
+
+	/**
+	 * Returns the activity of an event, with lifecycle the activity is concatenated with the transition if it exists
+	 */
+	public static String getActivity(XEvent event, boolean lifecycle) {
+		XAttributeMap attributes = event.getAttributes();
+		XAttribute activity = attributes.get(XConceptExtension.KEY_NAME);
+		if(activity == null) {
+			return null;
+		}
+		if(lifecycle == true) {
+			XAttribute transition = attributes.get(XLifecycleExtension.KEY_TRANSITION);
+			if(transition != null) {
+				return activity.toString()+"-"+transition.toString();
+			}
+		}
+		return activity.toString();
+	}
+
+	private void add(Map<IntSequence, Integer> ids, int trace, IntSequence sequence) {
+		Integer id = ids.get(sequence);
+		if(id == null) {
+			id = sequences.size();
+			ids.put(sequence, id);
+			sequences.add(sequence);
+		}
+		traceVariants[trace] = id.intValue();
+	}
+
+	private void finish() {
+		counts = new int[sequences.size()];
+		firstTraces = new int[sequences.size()];
+		Arrays.fill(firstTraces, -1);
+		for(int t = 0; t < traceVariants.length; t++) {
+			int variant = traceVariants[t];
+			counts[variant]++;
+			if(firstTraces[variant] == -1) {
+				firstTraces[variant] = t;
+			}
+		}
+		variants = new TraceVariant[sequences.size()];
+	}
+
+	public int getNumberOfTraces() {
+		return traceVariants.length;
+	}
+
+	public int getNumberOfVariants() {
+		return sequences.size();
+	}
+
+	/**
+	 * Returns the id of the variant of a trace
+	 * @param trace		Position of the trace in the log
+	 */
+	public int getVariant(int trace) {
+		return traceVariants[trace];
+	}
+
+	/**
+	 * Returns the number of traces of a variant
+	 */
+	public int getCount(int variant) {
+		return counts[variant];
+	}
+
+	/**
+	 * Returns the position of the first trace of a variant
+	 */
+	public int getFirstTrace(int variant) {
+		return firstTraces[variant];
+	}
+
+	/**
+	 * Returns the positions of all traces of a variant in ascending order
+	 */
+	public int[] getTraces(int variant) {
+		int[] traces = new int[counts[variant]];
+		int i = 0;
+		for(int t = firstTraces[variant]; t < traceVariants.length && i < traces.length; t++) {
+			if(traceVariants[t] == variant) {
+				traces[i] = t;
+				i++;
+			}
+		}
+		return traces;
+	}
+
+	/**
+	 * Returns the positions of the traces grouped by their variants, the traces of a variant are in ascending order
+	 */
+	public int[][] getTracesByVariant() {
+		int[][] traces = new int[sequences.size()][];
+		int[] filled = new int[sequences.size()];
+		for(int v = 0; v < traces.length; v++) {
+			traces[v] = new int[counts[v]];
+		}
+		for(int t = 0; t < traceVariants.length; t++) {
+			int variant = traceVariants[t];
+			traces[variant][filled[variant]] = t;
+			filled[variant]++;
+		}
+		return traces;
+	}
+
+	/**
+	 * Returns the sequence of activity ids of a variant
+	 */
+	public IntSequence getSequence(int variant) {
+		return sequences.get(variant);
+	}
+
+	/**
+	 * Returns the dictionary that maps the activity ids of the sequences to the activities
+	 */
+	public Dictionary getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * Returns the trace variant with the given id, the trace variant is created on the first call
+	 */
+	public synchronized TraceVariant getTraceVariant(int variant) {
+		if(variants[variant] == null) {
+			IntSequence sequence = sequences.get(variant);
+			List<ActivityClassifier> events = new ArrayList<ActivityClassifier>(sequence.length());
+			for(int i = 0; i < sequence.length(); i++) {
+				events.add(new ActivityClassifier(dictionary.get(sequence.get(i))));
+			}
+			variants[variant] = new TraceVariant(events);
+		}
+		return variants[variant];
+	}
+
+	/**
+	 * Returns the trace variants and the number of their traces
+	 */
+	public Map<TraceVariant, Integer> getCountedVariants() {
+		Map<TraceVariant, Integer> countedVariants = new HashMap<TraceVariant, Integer>();
+		for(int v = 0; v < sequences.size(); v++) {
+			countedVariants.put(getTraceVariant(v), counts[v]);
+		}
+		return countedVariants;
+	}
+
+	@Override
+	public String toString() {
+		return "Traces: "+traceVariants.length+", Variants: "+sequences.size();
+	}
+
+}
@@ -4,7 +4,7 @@ package parser.classifier;
  * @author Martin Kaeppel
  */
 public class ActivityClassifier extends Classifier {
-	private String name;
+	private final String name;
 	
 	public ActivityClassifier(String name) {
 		this.name = name;
@@ -27,7 +27,7 @@ public class ActivityClassifier extends Classifier {
 
 	@Override
 	public int hashCode() {
-		return 0;
+		return name.hashCode();
 	}
 	
 	@Override
@@ -1,28 +1,38 @@
 package parser.classifier;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+/**
+ * Immutable prefix of a trace, i.e. the sequence of the first activities of a trace. The hash code is computed once.
+ */
 public class Prefix {
-	List<String> prefix = new ArrayList<String>();
+	private final List<String> prefix;
+	private final int hash;
 	
-	public Prefix() {
-		
+	/**
+	 * @param prefix	Activities of the prefix, the list is copied
+	 */
+	public Prefix(List<String> prefix) {
+		this.prefix = Collections.unmodifiableList(new ArrayList<String>(prefix));
+		this.hash = this.prefix.hashCode();
 	}
 	
-	public void append(String element) {
-		prefix.add(element);
+	/**
+	 * Returns a new prefix that is extended by the given element
+	 */
+	public Prefix append(String element) {
+		List<String> extended = new ArrayList<String>(prefix.size()+1);
+		extended.addAll(prefix);
+		extended.add(element);
+		return new Prefix(extended);
 	}
 	
 	public List<String> getPrefix() {
 		return prefix;
 	}
 	
-	public void setPrefix(List<String> prefix) {
-		this.prefix = prefix;
-	}
-	
 	@Override
 	public String toString() {
 		return prefix.toString();
@@ -30,7 +40,7 @@ public class Prefix {
 	
 	@Override
 	public int hashCode() {
-		return 0;
+		return hash;
 	}
 	
 	@Override
@@ -40,7 +50,7 @@ public class Prefix {
 		}
 		else {
 			Prefix c = (Prefix) o;
-			return Arrays.equals(prefix.toArray(),c.getPrefix().toArray());
+			return hash == c.hash && prefix.equals(c.getPrefix());
 		}
 		
 	}
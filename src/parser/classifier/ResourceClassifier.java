@@ -32,7 +32,7 @@ public class ResourceClassifier extends Classifier {
 	}
 	
 	public int hashCode() {
-		return 0;
+		return index;
 	}
 	
 
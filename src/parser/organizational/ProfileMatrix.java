@@ -0,0 +1,137 @@
+package parser.organizational;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Activity profiles of the originators as dense rows of primitive counts. Row i is the profile of the originator i,
+ * column j counts how often the originator executed the activity j.
+ *
+ * @author Martin Kaeppel
+ */
+public class ProfileMatrix implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private String[] originators;
+	private String[] activities;
+	private double[][] profiles;
+	private int numberOfActivities;
+
+	/**
+	 * @param originators			Originators in the order of the rows
+	 * @param profiles				Profiles of the originators, every row has numberOfActivities columns
+	 */
+	public ProfileMatrix(String[] originators, double[][] profiles, int numberOfActivities) {
+		this.originators = originators;
+		this.profiles = profiles;
+		this.numberOfActivities = numberOfActivities;
+	}
+
+	/**
+	 * @param originators			Originators in the order of the rows
+	 * @param activities			Activities in the order of the columns
+	 * @param profiles				Profiles of the originators, every row has a column for every activity
+	 */
+	public ProfileMatrix(String[] originators, String[] activities, double[][] profiles) {
+		this(originators, profiles, activities.length);
+		this.activities = activities;
+	}
+
+	/**
+	 * Creates the matrix of boxed profiles, the rows are in the iteration order of the map
+	 */
+	public static ProfileMatrix fromMap(Map<String, Integer[]> profiles) {
+		String[] originators = new String[profiles.size()];
+		double[][] rows = new double[profiles.size()][];
+		int numberOfActivities = 0;
+		int i = 0;
+		for(Map.Entry<String, Integer[]> entry : profiles.entrySet()) {
+			Integer[] profile = entry.getValue();
+			originators[i] = entry.getKey();
+			rows[i] = new double[profile.length];
+			for(int j = 0; j < profile.length; j++) {
+				rows[i][j] = profile[j];
+			}
+			numberOfActivities = Math.max(numberOfActivities, profile.length);
+			i++;
+		}
+		return new ProfileMatrix(originators, rows, numberOfActivities);
+	}
+
+	/**
+	 * Returns the profiles as boxed arrays in the order of the rows
+	 */
+	public Map<String, Integer[]> toMap() {
+		Map<String, Integer[]> map = new LinkedHashMap<String, Integer[]>();
+		for(int i = 0; i < originators.length; i++) {
+			Integer[] profile = new Integer[numberOfActivities];
+			for(int j = 0; j < numberOfActivities; j++) {
+				profile[j] = j < profiles[i].length ? (int) profiles[i][j] : 0;
+			}
+			map.put(originators[i], profile);
+		}
+		return map;
+	}
+
+	/**
+	 * Returns the centered profiles scaled to length 1, so that the Pearson correlation of two originators is the
+	 * dot product of their rows. The row of an originator with a constant profile is null, because the correlation
+	 * is not defined for it.
+	 */
+	public double[][] normalize() {
+		double[][] normalized = new double[profiles.length][];
+		for(int i = 0; i < profiles.length; i++) {
+			double[] profile = profiles[i];
+			double mean = 0;
+			for(int j = 0; j < profile.length; j++) {
+				mean = mean+profile[j];
+			}
+			mean = mean/numberOfActivities;
+
+			double[] row = new double[numberOfActivities];
+			double variance = 0;
+			for(int j = 0; j < numberOfActivities; j++) {
+				row[j] = (j < profile.length ? profile[j] : 0)-mean;
+				variance = variance+row[j]*row[j];
+			}
+			if(variance == 0) {
+				continue;
+			}
+			double scale = 1/Math.sqrt(variance);
+			for(int j = 0; j < numberOfActivities; j++) {
+				row[j] = row[j]*scale;
+			}
+			normalized[i] = row;
+		}
+		return normalized;
+	}
+
+	public String getOriginator(int i) {
+		return originators[i];
+	}
+
+	public String[] getOriginators() {
+		return originators;
+	}
+
+	/**
+	 * Returns the activities in the order of the columns or null if the activities are not known
+	 */
+	public String[] getActivities() {
+		return activities;
+	}
+
+	public double[] getProfile(int i) {
+		return profiles[i];
+	}
+
+	public int getNumberOfActivities() {
+		return numberOfActivities;
+	}
+
+	public int size() {
+		return originators.length;
+	}
+
+}
@@ -1,11 +1,14 @@
 package parser.organizational;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.IntStream;
 
 import org.deckfour.xes.extension.std.XConceptExtension;
 import org.deckfour.xes.extension.std.XLifecycleExtension;
@@ -13,24 +16,49 @@ import org.deckfour.xes.extension.std.XOrganizationalExtension;
 import org.deckfour.xes.model.XEvent;
 import org.deckfour.xes.model.XLog;
 import org.deckfour.xes.model.XTrace;
-import org.jgrapht.Graph;
-import org.jgrapht.alg.connectivity.ConnectivityInspector;
-import org.jgrapht.graph.DefaultEdge;
-import org.jgrapht.graph.SimpleGraph;
 
+import parser.Dictionary;
+import parser.IntLog;
 import parser.Parser;
+import util.UnionFind;
 /**
- * This class extracts roles in an event log
+ * This class extracts roles in an event log. Two originators belong to the same role if they are connected by a
+ * chain of originators whose activity profiles have a Pearson correlation above the threshold. The profiles are
+ * kept as primitive rows, the correlations are computed as dot products of the normalized rows in parallel blocks
+ * and the roles are the sets of a union find. In the approximate mode only the candidate pairs of a SimHashIndex
+ * are compared, which avoids the comparison of all pairs for logs with many originators.
  * 
  * @author Martin Kaeppel
  */
 public class RoleExtractor {
+	//Number of rows that are compared by one task
+	private final static int BLOCK_SIZE = 64;
+	
+	private boolean approximate;
+	private long seed;
 	
 	public RoleExtractor() {
-		
+		this(false, 0);
+	}
+	
+	/**
+	 * @param approximate	If true the roles are extracted with locality sensitive hashing, pairs of originators above
+	 * 						the threshold can be missed
+	 * @param seed			Seed of the hashing in the approximate mode
+	 */
+	public RoleExtractor(boolean approximate, long seed) {
+		this.approximate = approximate;
+		this.seed = seed;
 	}
 	
 	public Map<String, Integer[]> extractProfiles(XLog log, boolean lifecycle) {
+		return extractProfileMatrix(log, lifecycle).toMap();
+	}
+	
+	/**
+	 * Extracts the profiles of all originators of the log over all activities of the log
+	 */
+	public ProfileMatrix extractProfileMatrix(XLog log, boolean lifecycle) {
 		Parser p = new Parser();
 		
 		Set<String> originators = p.getOriginators(log);
@@ -42,9 +70,7 @@ public class RoleExtractor {
 			activities = p.getActivitiesWithLifecycle(log);
 		}
 		
-		Map<String, Integer[]> profiles = new HashMap<String, Integer[]>();
 		Map<String, Integer> activityIndex = new HashMap<String, Integer>();
-		
 		int counter = 0;
 		for(String activity : activities) {
 			activityIndex.put(activity, counter);
@@ -52,107 +78,263 @@ public class RoleExtractor {
 		}
 		
 		int numberOfActivities = activities.size();
+		Map<String, double[]> counts = new HashMap<String, double[]>();
 		for(String originator : originators) {
-			Integer[] profile = new Integer[numberOfActivities];
-			for(int i = 0; i < profile.length; i++) {
-				profile[i] = 0;
-			}
-			profiles.put(originator, profile);
+			counts.put(originator, new double[numberOfActivities]);
 		}
 		
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			XTrace currentTrace = logIterator.next();
-			Iterator<XEvent> traceIterator = currentTrace.iterator();
-			
-			while(traceIterator.hasNext()) {
-				XEvent currentEvent = traceIterator.next();
+		for(XTrace currentTrace : log) {
+			for(XEvent currentEvent : currentTrace) {
 				String originator = XOrganizationalExtension.instance().extractResource(currentEvent);
 				if(originator != null) {
-					int actInd;
-					if(lifecycle == false) {
-						actInd = activityIndex.get(XConceptExtension.instance().extractName(currentEvent)).intValue();
+					String activity = XConceptExtension.instance().extractName(currentEvent);
+					if(lifecycle == true) {
+						activity = activity+"-"+XLifecycleExtension.instance().extractTransition(currentEvent);
 					}
-					else {
-						actInd = activityIndex.get(XConceptExtension.instance().extractName(currentEvent)+"-"+XLifecycleExtension.instance().extractTransition(currentEvent)).intValue();
+					Integer actInd = activityIndex.get(activity);
+					if(actInd != null) {
+						counts.get(originator)[actInd]++;
 					}
-					Integer[] currentProfile = profiles.get(originator);
-					currentProfile[actInd] = currentProfile[actInd]+1;
 				}
 			}
 		}
 		
-		return profiles;
+		return toMatrix(counts, toArray(activityIndex));
 	}
 	
-	public Map<String, Set<String>> extractRoles(Map<String, Integer[]> profiles, double simThreshold) {
-		Map<String, Set<String>> roles = new HashMap<String, Set<String>>();
-		
-		Graph<String, DefaultEdge> g = new SimpleGraph<>(DefaultEdge.class);
-		
-		for(String originator : profiles.keySet()) {
-			g.addVertex(originator);
-		}
+	/**
+	 * Extracts the profiles in a single pass over a stream of traces, so the log has not to be held in memory.
+	 * The activities are indexed in the order of their first occurrence.
+	 */
+	public Map<String, Integer[]> extractProfiles(Iterator<XTrace> traces, boolean lifecycle) {
+		return extractProfileMatrix(traces, lifecycle).toMap();
+	}
+	
+	/**
+	 * Extracts the profiles in a single pass over a stream of traces, the activities are indexed in the order of
+	 * their first occurrence
+	 */
+	public ProfileMatrix extractProfileMatrix(Iterator<XTrace> traces, boolean lifecycle) {
+		Map<String, Integer> activityIndex = new HashMap<String, Integer>();
+		Map<String, double[]> counts = new HashMap<String, double[]>();
 		
-		Set<String> originators = profiles.keySet();
-		for(String s1 : originators) {
-			for(String s2 : originators) {
-				double correlation = calculatePearsonCorrelation(profiles.get(s1), profiles.get(s2));
-				if(!g.containsEdge(s1, s2)) {
-					if(!g.containsEdge(s2, s1)) {
-						if((correlation > simThreshold) && !(s1.equals(s2))) {
-							g.addEdge(s1, s2);
-						}
+		while(traces.hasNext()) {
+			XTrace currentTrace = traces.next();
+			for(XEvent currentEvent : currentTrace) {
+				String activity = XConceptExtension.instance().extractName(currentEvent);
+				if(activity == null) {
+					continue;
+				}
+				if(lifecycle == true) {
+					activity = activity+"-"+XLifecycleExtension.instance().extractTransition(currentEvent);
+				}
+				Integer actInd = activityIndex.get(activity);
+				if(actInd == null) {
+					actInd = activityIndex.size();
+					activityIndex.put(activity, actInd);
+				}
+				
+				String originator = XOrganizationalExtension.instance().extractResource(currentEvent);
+				if(originator != null) {
+					double[] currentProfile = counts.get(originator);
+					if(currentProfile == null) {
+						currentProfile = new double[Math.max(16, activityIndex.size())];
+						counts.put(originator, currentProfile);
+					}
+					else if(currentProfile.length <= actInd) {
+						currentProfile = Arrays.copyOf(currentProfile, Math.max(2*currentProfile.length, activityIndex.size()));
+						counts.put(originator, currentProfile);
 					}
+					currentProfile[actInd]++;
 				}
 			}
 		}
 		
-		ConnectivityInspector<String, DefaultEdge> subgraphAlgorithm = new ConnectivityInspector<String, DefaultEdge>(g);
-		List<Set<String>> subgraphs = subgraphAlgorithm.connectedSets();
-		
-		int i=1;
-		for(Set<String> s : subgraphs) {
-			roles.put("Rolle "+i, s);
-			i++;
-		}
-		
-		return roles;
+		return toMatrix(counts, toArray(activityIndex));
+	}
+	
+	/**
+	 * Extracts the profiles from a log in columnar representation. Only activities and originators that
+	 * occur in the log are considered.
+	 */
+	public Map<String, Integer[]> extractProfiles(IntLog log, boolean lifecycle) {
+		return extractProfileMatrix(log, lifecycle).toMap();
 	}
+	
+	/**
+	 * Extracts the profiles from a log in columnar representation. Only activities and originators that
+	 * occur in the log are considered.
+	 */
+	public ProfileMatrix extractProfileMatrix(IntLog log, boolean lifecycle) {
+		Dictionary activities = log.getActivityDictionary(lifecycle);
+		Dictionary originators = log.getResourceDictionary();
 		
-	private double calculatePearsonCorrelation(Integer[] x, Integer[] y) {
-		double correlation = 0.0;
-		double x_mean = 0;
-		double y_mean = 0;
+		int[][] counts = new int[originators.size()][activities.size()];
+		boolean[] occuringActivities = new boolean[activities.size()];
+		boolean[] occuringOriginators = new boolean[originators.size()];
+		for(int e = 0; e < log.getNumberOfEvents(); e++) {
+			int activity = log.getActivity(e, lifecycle);
+			int originator = log.getResource(e);
+			if(activity != Dictionary.NO_VALUE) {
+				occuringActivities[activity] = true;
+			}
+			if(originator != Dictionary.NO_VALUE) {
+				occuringOriginators[originator] = true;
+				if(activity != Dictionary.NO_VALUE) {
+					counts[originator][activity]++;
+				}
+			}
+		}
 		
-		for(int i = 0; i < x.length; i++) {
-			x_mean = x_mean+x[i];
+		int numberOfActivities = 0;
+		for(boolean occuring : occuringActivities) {
+			if(occuring == true) {
+				numberOfActivities++;
+			}
 		}
-		x_mean = x_mean/(1.0*x.length);
 		
-		for(int j = 0; j < y.length; j++) {
-			y_mean = y_mean+y[j];
+		String[] activityNames = new String[numberOfActivities];
+		int column = 0;
+		for(int activity = 0; activity < occuringActivities.length; activity++) {
+			if(occuringActivities[activity] == true) {
+				activityNames[column] = activities.get(activity);
+				column++;
+			}
 		}
-		y_mean = y_mean/(1.0*y.length);
 		
-		//Calculate Covariance
-		double cov = 0;
-		for(int i = 0; i < x.length; i++) {
-			cov = cov+(x[i]-x_mean)*(y[i]-y_mean);
+		Map<String, double[]> profiles = new HashMap<String, double[]>();
+		for(int originator = 0; originator < counts.length; originator++) {
+			if(occuringOriginators[originator] == true) {
+				double[] profile = new double[numberOfActivities];
+				int index = 0;
+				for(int activity = 0; activity < occuringActivities.length; activity++) {
+					if(occuringActivities[activity] == true) {
+						profile[index] = counts[originator][activity];
+						index++;
+					}
+				}
+				profiles.put(originators.get(originator), profile);
+			}
 		}
 		
-		double var_x = 0;
-		for(int i = 0; i < x.length; i++) {
-			var_x = var_x + (x[i]-x_mean)*(x[i]-x_mean);
+		return toMatrix(profiles, activityNames);
+	}
+	
+	public Map<String, Set<String>> extractRoles(Map<String, Integer[]> profiles, double simThreshold) {
+		return extractRoles(ProfileMatrix.fromMap(profiles), simThreshold);
+	}
+	
+	/**
+	 * Extracts the roles, the roles are numbered in the order of the rows of their first originators
+	 */
+	public Map<String, Set<String>> extractRoles(ProfileMatrix profiles, double simThreshold) {
+		return toRoles(profiles, connect(profiles, simThreshold));
+	}
+	
+	/**
+	 * Returns the union find of the originators that are connected by a correlation above the threshold, exact
+	 * or approximate depending on the mode
+	 */
+	public UnionFind connect(ProfileMatrix profiles, double simThreshold) {
+		double[][] normalized = profiles.normalize();
+		if(approximate == true) {
+			return new SimHashIndex(seed).join(normalized, profiles.getNumberOfActivities(), simThreshold);
+		}
+		return connect(normalized, simThreshold);
+	}
+	
+	/**
+	 * Connects all pairs of rows whose dot product is above the threshold. Only the upper triangle is evaluated,
+	 * every task compares a block of rows with all following rows and collects the connections in its own union
+	 * find, the union finds of the tasks are merged afterwards.
+	 * @param normalized	Normalized profiles, rows that are null are not connected
+	 */
+	private UnionFind connect(double[][] normalized, double simThreshold) {
+		int n = normalized.length;
+		int numberOfBlocks = (n+BLOCK_SIZE-1)/BLOCK_SIZE;
+		UnionFind components = new UnionFind(n);
+		IntStream.range(0, numberOfBlocks).parallel().mapToObj(block -> {
+			UnionFind local = new UnionFind(n);
+			int end = Math.min(n, (block+1)*BLOCK_SIZE);
+			for(int i = block*BLOCK_SIZE; i < end; i++) {
+				double[] x = normalized[i];
+				if(x == null) {
+					continue;
+				}
+				for(int j = i+1; j < n; j++) {
+					double[] y = normalized[j];
+					if(y == null || local.connected(i, j) == true) {
+						continue;
+					}
+					if(dot(x, y) > simThreshold) {
+						local.union(i, j);
+					}
+				}
+			}
+			return local;
+		}).forEachOrdered(local -> components.union(local));
+		return components;
+	}
+	
+	/**
+	 * Returns the dot product of two vectors of the same length
+	 */
+	static double dot(double[] x, double[] y) {
+		double product = 0;
+		for(int k = 0; k < x.length; k++) {
+			product = product+x[k]*y[k];
 		}
-		double var_y = 0;
-		for(int i = 0; i < y.length; i++) {
-			var_y = var_y + (y[i]-y_mean)*(y[i]-y_mean);
+		return product;
+	}
+	
+	/**
+	 * Creates a role for every set of the union find, the roles are numbered in the order of their first rows
+	 */
+	public static Map<String, Set<String>> toRoles(ProfileMatrix profiles, UnionFind components) {
+		int n = profiles.size();
+		int[] roleOfRoot = new int[n];
+		List<Set<String>> members = new ArrayList<Set<String>>(components.getNumberOfSets());
+		for(int i = 0; i < n; i++) {
+			int root = components.find(i);
+			if(roleOfRoot[root] == 0) {
+				members.add(new HashSet<String>());
+				roleOfRoot[root] = members.size();
+			}
+			members.get(roleOfRoot[root]-1).add(profiles.getOriginator(i));
 		}
 		
-		correlation = cov/(Math.sqrt(var_x*var_y));
-		return correlation;
+		Map<String, Set<String>> roles = new HashMap<String, Set<String>>();
+		for(int i = 0; i < members.size(); i++) {
+			roles.put("Rolle "+(i+1), members.get(i));
+		}
+		return roles;
+	}
+	
+	/**
+	 * Returns the activities in the order of their indices
+	 */
+	private String[] toArray(Map<String, Integer> activityIndex) {
+		String[] activities = new String[activityIndex.size()];
+		for(Map.Entry<String, Integer> entry : activityIndex.entrySet()) {
+			activities[entry.getValue()] = entry.getKey();
+		}
+		return activities;
 	}
 	
+	/**
+	 * Creates the matrix of the profiles in the iteration order of the map, short rows are filled with zeros
+	 */
+	private ProfileMatrix toMatrix(Map<String, double[]> counts, String[] activities) {
+		int numberOfActivities = activities.length;
+		String[] originators = new String[counts.size()];
+		double[][] rows = new double[counts.size()][];
+		int i = 0;
+		for(Map.Entry<String, double[]> entry : counts.entrySet()) {
+			originators[i] = entry.getKey();
+			rows[i] = entry.getValue().length == numberOfActivities ? entry.getValue() : Arrays.copyOf(entry.getValue(), numberOfActivities);
+			i++;
+		}
+		return new ProfileMatrix(originators, activities, rows);
+	}
 
 }
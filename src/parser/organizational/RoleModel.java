@@ -0,0 +1,247 @@
+package parser.organizational;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import org.deckfour.xes.model.XLog;
+import org.deckfour.xes.model.XTrace;
+
+import com.google.common.collect.MapMaker;
+
+import parser.IntLog;
+import parser.LogStatistics;
+import parser.Parser;
+
+/**
+ * Result of the role mining of a log: the profiles of the originators, the roles, the role of every originator and
+ * the indices of the activities and roles used by the GenerativeLSTM approach. The model of a log is computed once
+ * and cached as long as the log is in use, so all consumers of a log share the same roles. The model can be saved
+ * to disk and loaded in a later run.
+ *
+ * @author Martin Kaeppel
+ */
+public class RoleModel implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	public final static double SIMILARITY_THRESHOLD = 0.85;
+	public final static String START = "Start";
+	public final static String END = "End";
+
+	//Models of the already parsed logs, the logs are compared by identity
+	private final static ConcurrentMap<XLog, RoleModel> models = new MapMaker().weakKeys().makeMap();
+	private final static ConcurrentMap<XLog, RoleModel> modelsWithLifecycle = new MapMaker().weakKeys().makeMap();
+
+	private boolean lifecycle;
+	private int numberOfTraces;
+	private ProfileMatrix profiles;
+	private Map<String, Set<String>> roles;
+	private Map<String, String> originatorRoleMap;
+	private Map<String, Integer> activityIndex;
+	private Map<String, Integer> roleIndex;
+
+	/**
+	 * @param profiles			Profiles of the originators
+	 * @param roles				Roles with their originators
+	 * @param activities		Activities in the order of their indices
+	 * @param lifecycle			If true the activities are concatenated with the lifecycle transition
+	 * @param numberOfTraces	Number of traces of the log
+	 */
+	public RoleModel(ProfileMatrix profiles, Map<String, Set<String>> roles, Collection<String> activities, boolean lifecycle, int numberOfTraces) {
+		this.profiles = profiles;
+		this.roles = roles;
+		this.lifecycle = lifecycle;
+		this.numberOfTraces = numberOfTraces;
+
+		originatorRoleMap = new HashMap<String, String>();
+		for(String role : roles.keySet()) {
+			for(String originator : roles.get(role)) {
+				originatorRoleMap.put(originator, role);
+			}
+		}
+		activityIndex = createIndex(activities);
+		roleIndex = createIndex(roles.keySet());
+	}
+
+	/**
+	 * Returns the model of a log, the model is computed on the first call and computed again if the number of traces
+	 * has changed
+	 */
+	public static RoleModel get(XLog log, boolean lifecycle) {
+		ConcurrentMap<XLog, RoleModel> cache = lifecycle == true ? modelsWithLifecycle : models;
+		RoleModel model = cache.get(log);
+		if(model == null || model.getNumberOfTraces() != log.size()) {
+			model = compute(log, lifecycle);
+			cache.put(log, model);
+		}
+		return model;
+	}
+
+	/**
+	 * Computes the model of a log without caching it
+	 */
+	public static RoleModel compute(XLog log, boolean lifecycle) {
+		Parser p = new Parser();
+		Set<String> activities = null;
+		if(lifecycle == true) {
+			activities = p.getActivitiesWithLifecycle(log);
+		}
+		else {
+			activities = p.getActivities(log);
+		}
+		RoleExtractor roleExtractor = new RoleExtractor();
+		ProfileMatrix profiles = roleExtractor.extractProfileMatrix(log, lifecycle);
+		return new RoleModel(profiles, roleExtractor.extractRoles(profiles, SIMILARITY_THRESHOLD), activities, lifecycle, log.size());
+	}
+
+	/**
+	 * Computes the model of a log in columnar representation, the activities are indexed like in compute(XLog, boolean)
+	 */
+	public static RoleModel compute(IntLog log, boolean lifecycle) {
+		RoleExtractor roleExtractor = new RoleExtractor();
+		ProfileMatrix profiles = roleExtractor.extractProfileMatrix(log, lifecycle);
+		LogStatistics statistics = LogStatistics.compute(log);
+		Set<String> activities = null;
+		if(lifecycle == true) {
+			activities = new HashSet<String>(statistics.getActivitiesWithLifecycle());
+		}
+		else {
+			activities = new HashSet<String>(statistics.getActivities());
+		}
+		return new RoleModel(profiles, roleExtractor.extractRoles(profiles, SIMILARITY_THRESHOLD), activities, lifecycle, log.getNumberOfTraces());
+	}
+
+	/**
+	 * Computes the model in a single pass over a stream of traces, the activities are indexed in the order of their
+	 * first occurrence
+	 */
+	public static RoleModel compute(Iterator<XTrace> traces, boolean lifecycle) {
+		CountingIterator counter = new CountingIterator(traces);
+		RoleExtractor roleExtractor = new RoleExtractor();
+		ProfileMatrix profiles = roleExtractor.extractProfileMatrix(counter, lifecycle);
+		return new RoleModel(profiles, roleExtractor.extractRoles(profiles, SIMILARITY_THRESHOLD), Arrays.asList(profiles.getActivities()), lifecycle, counter.count);
+	}
+
+	/**
+	 * Saves the model to a file
+	 */
+	public void save(File file) {
+		try {
+			ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+			try {
+				out.writeObject(this);
+			}
+			finally {
+				out.close();
+			}
+		}
+		catch(IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Loads a model from a file
+	 * @return the model or null if the file can not be read
+	 */
+	public static RoleModel load(File file) {
+		try {
+			ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
+			try {
+				return (RoleModel) in.readObject();
+			}
+			finally {
+				in.close();
+			}
+		}
+		catch(IOException | ClassNotFoundException e) {
+			System.err.println(e);
+		}
+		return null;
+	}
+
+	/**
+	 * Creates an index that starts with START and ends with END
+	 */
+	private static Map<String, Integer> createIndex(Collection<String> elements) {
+		Map<String, Integer> index = new HashMap<String, Integer>();
+		index.put(START, 0);
+		int i = 1;
+		for(String element : elements) {
+			index.put(element, i);
+			i++;
+		}
+		index.put(END, i);
+		return index;
+	}
+
+	public String getRole(String originator) {
+		return originatorRoleMap.get(originator);
+	}
+
+	public ProfileMatrix getProfiles() {
+		return profiles;
+	}
+
+	public Map<String, Set<String>> getRoles() {
+		return roles;
+	}
+
+	public Map<String, String> getOriginatorRoleMap() {
+		return originatorRoleMap;
+	}
+
+	public Map<String, Integer> getActivityIndex() {
+		return activityIndex;
+	}
+
+	public Map<String, Integer> getRoleIndex() {
+		return roleIndex;
+	}
+
+	public boolean isLifecycle() {
+		return lifecycle;
+	}
+
+	public int getNumberOfTraces() {
+		return numberOfTraces;
+	}
+
+	/**
+	 * Counts the traces of a stream
+	 */
+	private static class CountingIterator implements Iterator<XTrace> {
+		private Iterator<XTrace> traces;
+		private int count;
+
+		private CountingIterator(Iterator<XTrace> traces) {
+			this.traces = traces;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return traces.hasNext();
+		}
+
+		@Override
+		public XTrace next() {
+			count++;
+			return traces.next();
+		}
+	}
+
+}
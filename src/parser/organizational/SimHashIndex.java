@@ -0,0 +1,115 @@
+package parser.organizational;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import util.UnionFind;
+
+/**
+ * Approximate similarity join of normalized profiles with locality sensitive hashing. Every profile gets a SimHash
+ * signature, i.e. the signs of its projections on random hyperplanes. The signature is cut into bands, profiles with
+ * the same bits in a band are candidate pairs. The candidates are verified with their exact correlation, so the join
+ * can miss pairs but never connects profiles below the threshold.
+ * Two profiles with correlation c agree in a bit with probability 1-arccos(c)/pi. With 20 bands of 8 bits a pair with
+ * correlation 0.85 becomes a candidate with probability of about 0.99.
+ *
+ * @author Martin Kaeppel
+ */
+public class SimHashIndex {
+	public final static int DEFAULT_BANDS = 20;
+	public final static int DEFAULT_ROWS = 8;
+
+	private int numberOfBands;
+	private int rowsPerBand;
+	private long seed;
+
+	public SimHashIndex(long seed) {
+		this(DEFAULT_BANDS, DEFAULT_ROWS, seed);
+	}
+
+	/**
+	 * @param numberOfBands		Number of bands of the signature
+	 * @param rowsPerBand		Number of bits per band, at most 31
+	 * @param seed				Seed of the random hyperplanes
+	 */
+	public SimHashIndex(int numberOfBands, int rowsPerBand, long seed) {
+		this.numberOfBands = numberOfBands;
+		this.rowsPerBand = rowsPerBand;
+		this.seed = seed;
+	}
+
+	/**
+	 * Connects the pairs of profiles whose dot product is above the threshold and that share at least one band
+	 * @param normalized	Profiles scaled to length 1, rows that are null are not connected
+	 * @param dimension		Length of the profiles
+	 */
+	public UnionFind join(double[][] normalized, int dimension, double threshold) {
+		int n = normalized.length;
+		int[][] keys = signatures(normalized, dimension);
+		UnionFind components = new UnionFind(n);
+		IntStream.range(0, numberOfBands).parallel().mapToObj(band -> {
+			UnionFind local = new UnionFind(n);
+			//Key of the band in the upper and position of the profile in the lower half, sorting groups the buckets
+			long[] entries = new long[n];
+			int size = 0;
+			for(int i = 0; i < n; i++) {
+				if(normalized[i] != null) {
+					entries[size] = ((long) keys[band][i] << 32) | i;
+					size++;
+				}
+			}
+			Arrays.sort(entries, 0, size);
+			int start = 0;
+			while(start < size) {
+				int end = start+1;
+				while(end < size && (entries[end] >>> 32) == (entries[start] >>> 32)) {
+					end++;
+				}
+				for(int a = start; a < end; a++) {
+					int i = (int) entries[a];
+					for(int b = a+1; b < end; b++) {
+						int j = (int) entries[b];
+						if(local.connected(i, j) == false && RoleExtractor.dot(normalized[i], normalized[j]) > threshold) {
+							local.union(i, j);
+						}
+					}
+				}
+				start = end;
+			}
+			return local;
+		}).forEachOrdered(local -> components.union(local));
+		return components;
+	}
+
+	/**
+	 * Returns the keys of the bands of all profiles, keys[band][profile]
+	 */
+	private int[][] signatures(double[][] normalized, int dimension) {
+		Random random = new Random(seed);
+		double[][] hyperplanes = new double[numberOfBands*rowsPerBand][dimension];
+		for(double[] hyperplane : hyperplanes) {
+			for(int k = 0; k < dimension; k++) {
+				hyperplane[k] = random.nextGaussian();
+			}
+		}
+		int[][] keys = new int[numberOfBands][normalized.length];
+		IntStream.range(0, normalized.length).parallel().forEach(i -> {
+			if(normalized[i] == null) {
+				return;
+			}
+			for(int band = 0; band < numberOfBands; band++) {
+				int key = 0;
+				for(int bit = 0; bit < rowsPerBand; bit++) {
+					key = key << 1;
+					if(RoleExtractor.dot(hyperplanes[band*rowsPerBand+bit], normalized[i]) >= 0) {
+						key = key | 1;
+					}
+				}
+				keys[band][i] = key;
+			}
+		});
+		return keys;
+	}
+
+}
@@ -0,0 +1,210 @@
+package pipeline;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.io.FilenameUtils;
+import org.deckfour.xes.model.XLog;
+
+import loader.Loader;
+import ml.Approach;
+import preprocessing.Filtering;
+import reducer.ReducedLogContainer;
+import reducer.Reducer;
+import reducer.ReducerNested;
+import splitter.Splitter;
+import splitter.TestTrainObject;
+import util.Serializer;
+
+/**
+ * Executes the reduction experiments of several event logs in parallel. Every combination of event log, splitter,
+ * ratio, reducer, reduction factor and approach is scheduled as an own job on a thread pool with a fixed number of
+ * threads. A job starts as soon as the jobs it depends on are finished:
+ *
+ * load and preprocess log -> split -> reduce (one job per reduction factor) -> approach (after all reductions of the reducer)
+ *
+ * A ReducerNested creates all reduction levels in one job, the levels are serialized by one job per reduction factor.
+ *
+ * The loaded and preprocessed log as well as the split logs are shared read-only between the jobs. The created
+ * directories and files are the same as in the sequential pipeline.
+ *
+ * @author Martin Kaeppel
+ */
+public class ExperimentRunner {
+	private int threads;
+	private ExecutorService executor;
+	private StageTimings timings;
+	private Serializer serializer;
+
+	/**
+	 * @param threads	Maximal number of jobs that are executed at the same time
+	 */
+	public ExperimentRunner(int threads) {
+		this.threads = threads;
+		this.timings = new StageTimings();
+		this.serializer = new Serializer();
+	}
+
+	/**
+	 * Runs the experiments and waits until all jobs are finished
+	 */
+	public void run(List<String> eventLogs, List<Double> desiredReductions, List<Splitter> splitters, List<Reducer> reducers, List<Double> ratios, List<Approach> approaches, boolean lifecycle) {
+		long start = System.currentTimeMillis();
+		executor = Executors.newFixedThreadPool(threads);
+		List<CompletableFuture<Void>> logJobs = new ArrayList<CompletableFuture<Void>>();
+		//Logs that share a data directory are processed one after another, since they write the same files
+		Map<String, CompletableFuture<Void>> directories = new HashMap<String, CompletableFuture<Void>>();
+		try {
+			for(String eventLog : eventLogs) {
+				String pathDataDirectory = FilenameUtils.getFullPath(eventLog)+"\\data";
+				CompletableFuture<Void> previous = directories.getOrDefault(pathDataDirectory, CompletableFuture.completedFuture(null));
+
+				List<CompletableFuture<?>> jobs = new ArrayList<CompletableFuture<?>>();
+				CompletableFuture<XLog> preprocessedLog = previous.thenApplyAsync(v -> preprocess(eventLog, pathDataDirectory, lifecycle), executor);
+				jobs.add(preprocessedLog);
+
+				for(Splitter splitter : splitters) {
+					String pathSplitter = pathDataDirectory+"\\"+splitter.getClass().getSimpleName();
+					for(double sizeTestData : ratios) {
+						String pathRatio = pathSplitter+"\\"+sizeTestData;
+						CompletableFuture<TestTrainObject> split = preprocessedLog.thenApplyAsync(log -> split(splitter, log, sizeTestData, pathRatio), executor);
+						jobs.add(split);
+
+						for(Reducer reducer : reducers) {
+							String pathReducer = pathRatio+"\\"+reducer.getClass().getSimpleName();
+							jobs.addAll(scheduleReducer(reducer, desiredReductions, approaches, preprocessedLog, split, pathReducer, lifecycle));
+						}
+					}
+				}
+
+				CompletableFuture<Void> logJob = CompletableFuture.allOf(jobs.toArray(new CompletableFuture<?>[jobs.size()]));
+				directories.put(pathDataDirectory, logJob.handle((v, e) -> null));
+				logJobs.add(logJob);
+			}
+
+			for(int i = 0; i < logJobs.size(); i++) {
+				try {
+					logJobs.get(i).join();
+				}
+				catch(CompletionException e) {
+					System.err.println("Experiment failed for "+eventLogs.get(i)+": "+e.getCause());
+				}
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+		System.out.println("Finished after "+(System.currentTimeMillis()-start)+" ms");
+		System.out.println(timings);
+	}
+
+	/**
+	 * Schedules the reduction jobs of a reducer and the jobs of the approaches that use the reduced logs
+	 */
+	private List<CompletableFuture<?>> scheduleReducer(Reducer reducer, List<Double> desiredReductions, List<Approach> approaches, CompletableFuture<XLog> preprocessedLog, CompletableFuture<TestTrainObject> split, String pathReducer, boolean lifecycle) {
+		List<CompletableFuture<?>> jobs = new ArrayList<CompletableFuture<?>>();
+
+		CompletableFuture<Void> training = split.thenAcceptAsync(testTrainObject -> {
+			createDirectory(pathReducer);
+			serialize(testTrainObject.getTrainingLog(), pathReducer, "log_train_red_10");
+		}, executor);
+		jobs.add(training);
+
+		List<CompletableFuture<ReducedLogContainer>> reductions = new ArrayList<CompletableFuture<ReducedLogContainer>>();
+		if(reducer instanceof ReducerNested) {
+			//All reduction levels are created in one job, each level is serialized by an own job
+			ReducerNested nestedReducer = (ReducerNested) reducer;
+			CompletableFuture<List<XLog>> levels = split.thenApplyAsync(testTrainObject -> timings.measure("reduce", () -> nestedReducer.reduce(testTrainObject.getTrainingLog(), desiredReductions)), executor);
+			for(int i = 0; i < desiredReductions.size(); i++) {
+				int level = i;
+				reductions.add(levels.thenApplyAsync(reducedLogs -> store(reducedLogs.get(level), desiredReductions.get(level).doubleValue(), pathReducer), executor));
+			}
+		}
+		else {
+			for(Double reductionFactor : desiredReductions) {
+				reductions.add(split.thenApplyAsync(testTrainObject -> reduce(reducer, testTrainObject.getTrainingLog(), reductionFactor.doubleValue(), pathReducer), executor));
+			}
+		}
+		jobs.addAll(reductions);
+
+		CompletableFuture<Set<ReducedLogContainer>> reducedLogs = CompletableFuture.allOf(reductions.toArray(new CompletableFuture<?>[reductions.size()])).thenCombine(split, (v, testTrainObject) -> {
+			Set<ReducedLogContainer> containers = new HashSet<ReducedLogContainer>();
+			containers.add(new ReducedLogContainer(testTrainObject.getTrainingLog(), "log_train_red_10"));
+			containers.add(new ReducedLogContainer(testTrainObject.getTestLog(), "log_test"));
+			for(CompletableFuture<ReducedLogContainer> reduction : reductions) {
+				containers.add(reduction.join());
+			}
+			return containers;
+		});
+
+		for(Approach approach : approaches) {
+			String pathApproach = pathReducer+"\\"+approach.getClass().getSimpleName();
+			jobs.add(reducedLogs.thenAcceptBothAsync(preprocessedLog, (containers, log) -> {
+				createDirectory(pathApproach);
+				timings.measure("approach", () -> approach.createInputFiles(log, containers, pathApproach, lifecycle));
+			}, executor));
+		}
+		return jobs;
+	}
+
+	private XLog preprocess(String eventLog, String pathDataDirectory, boolean lifecycle) {
+		System.out.println(eventLog);
+		createDirectory(pathDataDirectory);
+
+		//Load event log
+		XLog log = timings.measure("load", () -> Loader.getInstance().getProcessLog(eventLog));
+		if(log == null) {
+			throw new IllegalStateException("Cannot load "+eventLog);
+		}
+
+		//Preprocessing
+		XLog preprocessedLog = timings.measure("filter", () -> new Filtering().filterEventLog(log, true, true, true, lifecycle));
+		serialize(preprocessedLog, pathDataDirectory, "log_preprocessed");
+		return preprocessedLog;
+	}
+
+	private TestTrainObject split(Splitter splitter, XLog log, double sizeTestData, String pathRatio) {
+		createDirectory(pathRatio);
+		TestTrainObject testTrainObject = timings.measure("split", () -> splitter.splitEventLog(log, sizeTestData));
+		serialize(testTrainObject.getTestLog(), pathRatio, "log_test");
+		return testTrainObject;
+	}
+
+	private ReducedLogContainer reduce(Reducer reducer, XLog trainingLog, double reductionFactor, String pathReducer) {
+		XLog reducedLog = timings.measure("reduce", () -> reducer.reduce(trainingLog, reductionFactor));
+		return store(reducedLog, reductionFactor, pathReducer);
+	}
+
+	private ReducedLogContainer store(XLog reducedLog, double reductionFactor, String pathReducer) {
+		createDirectory(pathReducer);
+		String dString = String.valueOf(reductionFactor);
+		String[] splitted = dString.split("\\.");
+		serialize(reducedLog, pathReducer, "log_train_red_"+splitted[0]+splitted[1]);
+		return new ReducedLogContainer(reducedLog, "log_train_red_"+splitted[0]+splitted[1]);
+	}
+
+	private void serialize(XLog log, String path, String title) {
+		timings.measure("serialize", () -> serializer.serializeLog(log, path, title));
+	}
+
+	private void createDirectory(String path) {
+		File directory = new File(path);
+		if(!directory.exists()) {
+			directory.mkdirs();
+		}
+	}
+
+	public StageTimings getTimings() {
+		return timings;
+	}
+
+}
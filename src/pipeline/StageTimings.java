@@ -0,0 +1,105 @@
+package pipeline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collects the execution times of the stages of an experiment. The times of all jobs of a stage are summed up,
+ * the class can be used concurrently by several jobs.
+ *
+ * @author Martin Kaeppel
+ */
+public class StageTimings {
+	private Map<String, Stage> stages = Collections.synchronizedMap(new LinkedHashMap<String, Stage>());
+
+	public StageTimings() {
+
+	}
+
+	/**
+	 * Executes the task and adds its execution time to the given stage
+	 * @param stage		Name of the stage
+	 * @param task
+	 * @return result of the task
+	 */
+	public <T> T measure(String stage, Supplier<T> task) {
+		long start = System.nanoTime();
+		try {
+			return task.get();
+		}
+		finally {
+			add(stage, System.nanoTime()-start);
+		}
+	}
+
+	/**
+	 * Executes the task and adds its execution time to the given stage
+	 * @param stage		Name of the stage
+	 * @param task
+	 */
+	public void measure(String stage, Runnable task) {
+		long start = System.nanoTime();
+		try {
+			task.run();
+		}
+		finally {
+			add(stage, System.nanoTime()-start);
+		}
+	}
+
+	private void add(String stage, long nanos) {
+		Stage s = stages.computeIfAbsent(stage, k -> new Stage());
+		s.nanos.add(nanos);
+		s.count.increment();
+	}
+
+	/**
+	 * Returns the summed up execution time of all jobs of a stage in milliseconds
+	 */
+	public long getTime(String stage) {
+		Stage s = stages.get(stage);
+		if(s == null) {
+			return 0;
+		}
+		return s.nanos.sum()/1000000;
+	}
+
+	/**
+	 * Returns the number of executed jobs of a stage
+	 */
+	public long getCount(String stage) {
+		Stage s = stages.get(stage);
+		if(s == null) {
+			return 0;
+		}
+		return s.count.sum();
+	}
+
+	public List<String> getStages() {
+		synchronized(stages) {
+			return new ArrayList<String>(stages.keySet());
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for(String stage : getStages()) {
+			long count = getCount(stage);
+			long time = getTime(stage);
+			builder.append(stage+": "+count+" jobs, "+time+" ms total, "+(time/count)+" ms per job\n");
+		}
+		return builder.toString();
+	}
+
+	private static class Stage {
+		private LongAdder nanos = new LongAdder();
+		private LongAdder count = new LongAdder();
+	}
+
+}
@@ -0,0 +1,144 @@
+package preprocessing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import org.deckfour.xes.factory.XFactory;
+import org.deckfour.xes.factory.XFactoryBufferedImpl;
+import org.deckfour.xes.model.XLog;
+import org.deckfour.xes.model.XTrace;
+
+/**
+ * Composition of trace filters. A trace is kept if all filters accept it, the filters are evaluated in the given
+ * order and a rejected trace is counted for the first filter that rejects it. Logs in memory are filtered in
+ * parallel, streams of traces one after another. The counters are accumulated over all runs until reset.
+ *
+ * @author Martin Kaeppel
+ */
+public class FilterPipeline {
+	private List<TraceFilter> filters;
+	private AtomicLongArray rejected;
+	private AtomicLong numberOfTraces = new AtomicLong();
+
+	public FilterPipeline(TraceFilter... filters) {
+		this(Arrays.asList(filters));
+	}
+
+	public FilterPipeline(List<TraceFilter> filters) {
+		this.filters = new ArrayList<TraceFilter>(filters);
+		this.rejected = new AtomicLongArray(filters.size());
+	}
+
+	/**
+	 * Returns true if all filters accept the trace
+	 */
+	public boolean accept(XTrace trace) {
+		numberOfTraces.incrementAndGet();
+		for(int f = 0; f < filters.size(); f++) {
+			if(filters.get(f).accept(trace) == false) {
+				rejected.incrementAndGet(f);
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns a log with the accepted traces in the order of the given log, the traces are checked in parallel
+	 */
+	public XLog filter(XLog log) {
+		boolean[] accepted = new boolean[log.size()];
+		IntStream.range(0, accepted.length).parallel().forEach(t -> accepted[t] = accept(log.get(t)));
+
+		XFactory factory = new XFactoryBufferedImpl();
+		XLog filteredLog = factory.createLog();
+		for(int t = 0; t < accepted.length; t++) {
+			if(accepted[t] == true) {
+				filteredLog.add(log.get(t));
+			}
+		}
+		return filteredLog;
+	}
+
+	/**
+	 * Streaming variant, the accepted traces are passed to the handler
+	 * @return number of traces that are passed to the handler
+	 */
+	public int filter(Iterator<XTrace> traces, Consumer<XTrace> handler) {
+		int accepted = 0;
+		while(traces.hasNext()) {
+			XTrace currentTrace = traces.next();
+			if(accept(currentTrace) == true) {
+				handler.accept(currentTrace);
+				accepted++;
+			}
+		}
+		return accepted;
+	}
+
+	/**
+	 * Returns the number of rejected traces per filter in the order of the filters
+	 */
+	public Map<String, Long> getRejections() {
+		Map<String, Long> rejections = new LinkedHashMap<String, Long>();
+		for(int f = 0; f < filters.size(); f++) {
+			rejections.merge(filters.get(f).getName(), rejected.get(f), Long::sum);
+		}
+		return rejections;
+	}
+
+	public long getNumberOfTraces() {
+		return numberOfTraces.get();
+	}
+
+	public long getNumberOfRejectedTraces() {
+		long sum = 0;
+		for(int f = 0; f < filters.size(); f++) {
+			sum = sum+rejected.get(f);
+		}
+		return sum;
+	}
+
+	public long getNumberOfAcceptedTraces() {
+		return getNumberOfTraces()-getNumberOfRejectedTraces();
+	}
+
+	public List<TraceFilter> getFilters() {
+		return filters;
+	}
+
+	public void reset() {
+		numberOfTraces.set(0);
+		for(int f = 0; f < filters.size(); f++) {
+			rejected.set(f, 0);
+		}
+	}
+
+	/**
+	 * Returns a summary of the counters
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("Removed ");
+		sb.append(getNumberOfRejectedTraces());
+		sb.append(" of ");
+		sb.append(getNumberOfTraces());
+		sb.append(" traces");
+		Map<String, Long> rejections = getRejections();
+		if(rejections.isEmpty() == false) {
+			sb.append(" ");
+			sb.append(rejections);
+		}
+		return sb.toString();
+	}
+
+}
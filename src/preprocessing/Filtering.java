@@ -1,15 +1,10 @@
 package preprocessing;
 
-import java.util.Date;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
 
-import org.deckfour.xes.extension.std.XConceptExtension;
-import org.deckfour.xes.extension.std.XLifecycleExtension;
-import org.deckfour.xes.extension.std.XOrganizationalExtension;
-import org.deckfour.xes.extension.std.XTimeExtension;
-import org.deckfour.xes.factory.XFactory;
-import org.deckfour.xes.factory.XFactoryBufferedImpl;
-import org.deckfour.xes.model.XEvent;
 import org.deckfour.xes.model.XLog;
 import org.deckfour.xes.model.XTrace;
 
@@ -29,62 +24,47 @@ public class Filtering {
 	
 	/**
 	 * 	This methods checks the traces of the given event log whether the information passed to the method are available. Otherwise
-	 *  the trace is removed from the event log.
+	 *  the trace is removed from the event log. The traces are checked in parallel, a summary of the removed traces is printed.
 	 */
 	public XLog filterEventLog(XLog log, boolean timestamp, boolean activity, boolean originator, boolean lifecycle) {		
-		XFactory factory = new XFactoryBufferedImpl();
-		XLog filteredLog = factory.createLog();
-		
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			XTrace currentTrace = logIterator.next();
-			
-			Iterator<XEvent> traceIterator = currentTrace.iterator();
-			boolean check = true;
-			while(traceIterator.hasNext()) {
-				XEvent currentEvent = traceIterator.next();
-				
-				if(activity == true) {
-					String extractedActivity = XConceptExtension.instance().extractName(currentEvent);
-					if(extractedActivity == null) {
-						check = false;
-						break;
-					}
-				}
-				
-				if(originator == true) {
-					String extractedOriginator = XOrganizationalExtension.instance().extractResource(currentEvent);
-					if(extractedOriginator == null) {
-						check = false;
-						break;
-					}
-				}
-				
-				if(lifecycle == true) {
-					String extractedLifecycle = XLifecycleExtension.instance().extractTransition(currentEvent);
-					if(extractedLifecycle == null) {
-						check = false;
-						break;
-					}
-				}
-				
-				if(timestamp == true) {
-					Date extractedTimestamp = XTimeExtension.instance().extractTimestamp(currentEvent);
-					if(extractedTimestamp == null) {
-						check = false;
-						break;
-					}
-				}
-			}
-			
-			if(check == true) {
-				filteredLog.add(currentTrace);
-			}
-			else {
-				System.out.println("Remove: " + XConceptExtension.instance().extractName(currentTrace));
-			}
-		}
+		FilterPipeline pipeline = createPipeline(timestamp, activity, originator, lifecycle);
+		XLog filteredLog = pipeline.filter(log);
+		System.out.println(pipeline);
 		
 		return filteredLog;
 	}
+	
+	/**
+	 * 	Streaming variant of the filter. The traces are checked one after another and the traces that contain all
+	 *  information are passed to the handler. 
+	 *  
+	 *  @return number of traces that are passed to the handler
+	 */
+	public int filterEventLog(Iterator<XTrace> traces, Consumer<XTrace> handler, boolean timestamp, boolean activity, boolean originator, boolean lifecycle) {
+		FilterPipeline pipeline = createPipeline(timestamp, activity, originator, lifecycle);
+		int accepted = pipeline.filter(traces, handler);
+		System.out.println(pipeline);
+		
+		return accepted;
+	}
+	
+	/**
+	 * 	Creates the pipeline that checks the given information
+	 */
+	public FilterPipeline createPipeline(boolean timestamp, boolean activity, boolean originator, boolean lifecycle) {
+		List<TraceFilter> filters = new ArrayList<TraceFilter>();
+		if(activity == true) {
+			filters.add(TraceFilters.hasActivities());
+		}
+		if(originator == true) {
+			filters.add(TraceFilters.hasOriginators());
+		}
+		if(lifecycle == true) {
+			filters.add(TraceFilters.hasLifecycles());
+		}
+		if(timestamp == true) {
+			filters.add(TraceFilters.hasTimestamps());
+		}
+		return new FilterPipeline(filters);
+	}
 }
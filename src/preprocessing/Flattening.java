@@ -1,55 +1,154 @@
 package preprocessing;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Set;
+import java.util.Map;
+import java.util.function.Consumer;
 
-import org.deckfour.xes.extension.std.XConceptExtension;
 import org.deckfour.xes.factory.XFactory;
 import org.deckfour.xes.factory.XFactoryBufferedImpl;
 import org.deckfour.xes.model.XEvent;
 import org.deckfour.xes.model.XLog;
 import org.deckfour.xes.model.XTrace;
 
-import parser.classifier.ActivityClassifier;
-import parser.Parser;
-import parser.TraceVariant;
+import parser.Dictionary;
+import parser.VariantIndex;
 /**
- * Possible preprocessing step. Flats an event log, i.e. ensures that each trace variant occures only once
+ * Possible preprocessing step. Flats an event log, i.e. ensures that each trace variant occures only once or at
+ * most k times. The traces are processed in a single pass: the activities are interned and every trace gets a
+ * 128 bit fingerprint of its activity sequence. Traces with the same fingerprint are compared with the stored
+ * sequence of the variant, so a collision of fingerprints never merges different variants.
  * @author Martin Kaeppel
  */
 public class Flattening {
+	//Multipliers of the two rolling hashes, odd so that they are invertible modulo 2^64
+	private final static long MULTIPLIER_1 = 0x9E3779B97F4A7C15L;
+	private final static long MULTIPLIER_2 = 0xC2B2AE3D27D4EB4FL;
 	
 	public Flattening() {
 		
 	}
 	
+	/**
+	 * Keeps the first trace of each variant
+	 */
 	public XLog flatteningLog(XLog log) {
-		Parser p = new Parser();
-		Set<TraceVariant> variants = p.getTraceVariants(log);
-		
+		return flatteningLog(log, 1);
+	}
+	
+	/**
+	 * Keeps the first traces of each variant in the order of the log
+	 * @param representatives	Maximal number of traces per variant
+	 */
+	public XLog flatteningLog(XLog log, int representatives) {
 		XFactory factory = new XFactoryBufferedImpl();
 		XLog flattenedLog = factory.createLog();
 		
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			XTrace currentTrace = logIterator.next();
-			Iterator<XEvent> traceIterator = currentTrace.iterator();
-			
-			TraceVariant variant = new TraceVariant();
-			while(traceIterator.hasNext()) {
-				XEvent currentEvent = traceIterator.next();
-				ActivityClassifier classifier = new ActivityClassifier(currentEvent.getAttributes().get(XConceptExtension.KEY_NAME).toString());
-				variant.addEvent(classifier);
+		flatteningLog(log.iterator(), representatives, flattenedLog::add);
+		
+		return flattenedLog;
+	}
+	
+	/**
+	 * Streaming variant, the first traces of each variant are passed to the handler
+	 * @param representatives	Maximal number of traces per variant
+	 * @return number of traces that are passed to the handler
+	 */
+	public int flatteningLog(Iterator<XTrace> traces, int representatives, Consumer<XTrace> handler) {
+		Dictionary dictionary = new Dictionary();
+		Map<Fingerprint, Variant> variants = new HashMap<Fingerprint, Variant>();
+		int[] buffer = new int[16];
+		int kept = 0;
+		while(traces.hasNext()) {
+			XTrace currentTrace = traces.next();
+			if(buffer.length < currentTrace.size()) {
+				buffer = new int[Math.max(currentTrace.size(), 2*buffer.length)];
+			}
+			long hash1 = 0;
+			long hash2 = currentTrace.size();
+			int e = 0;
+			for(XEvent currentEvent : currentTrace) {
+				int activity = dictionary.intern(VariantIndex.getActivity(currentEvent, false));
+				buffer[e] = activity;
+				hash1 = (hash1+activity+1)*MULTIPLIER_1;
+				hash2 = (hash2^mix(activity))*MULTIPLIER_2;
+				e++;
 			}
 			
-			if(variants.contains(variant)) {
-				flattenedLog.add(currentTrace);
-				variants.remove(variant);
+			//Variants with the same fingerprint are chained
+			Fingerprint fingerprint = new Fingerprint(hash1, hash2);
+			Variant variant = variants.get(fingerprint);
+			while(variant != null && variant.matches(buffer, e) == false) {
+				variant = variant.next;
+			}
+			if(variant == null) {
+				variant = new Variant(Arrays.copyOf(buffer, e));
+				variant.next = variants.put(fingerprint, variant);
+			}
+			if(variant.kept < representatives) {
+				variant.kept++;
+				handler.accept(currentTrace);
+				kept++;
 			}
 		}
+		return kept;
+	}
+	
+	/**
+	 * Finalizer of SplitMix64, spreads the bits of an activity id
+	 */
+	private static long mix(long value) {
+		value = (value^(value >>> 30))*0xBF58476D1CE4E5B9L;
+		value = (value^(value >>> 27))*0x94D049BB133111EBL;
+		return value^(value >>> 31);
+	}
+	
+	private static class Fingerprint {
+		private final long hash1;
+		private final long hash2;
 		
-		return flattenedLog;
+		private Fingerprint(long hash1, long hash2) {
+			this.hash1 = hash1;
+			this.hash2 = hash2;
+		}
+		
+		@Override
+		public boolean equals(Object o) {
+			if(!(o instanceof Fingerprint)) {
+				return false;
+			}
+			Fingerprint f = (Fingerprint) o;
+			return hash1 == f.hash1 && hash2 == f.hash2;
+		}
+		
+		@Override
+		public int hashCode() {
+			return (int) (hash1^(hash1 >>> 32));
+		}
+	}
+	
+	private static class Variant {
+		private final int[] activities;
+		private int kept;
+		//Next variant with the same fingerprint
+		private Variant next;
+		
+		private Variant(int[] activities) {
+			this.activities = activities;
+		}
 		
+		private boolean matches(int[] sequence, int length) {
+			if(activities.length != length) {
+				return false;
+			}
+			for(int i = 0; i < length; i++) {
+				if(activities[i] != sequence[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
 	}
 
 }
@@ -0,0 +1,19 @@
+package preprocessing;
+
+import org.deckfour.xes.model.XTrace;
+
+/**
+ * Predicate of a FilterPipeline, a trace is kept if all filters of the pipeline accept it. Filters must be
+ * stateless, so that they can be evaluated on several traces in parallel.
+ * @author Martin Kaeppel
+ */
+public interface TraceFilter {
+
+	public boolean accept(XTrace trace);
+
+	/**
+	 * Returns the name of the filter that is used in the summary of the pipeline
+	 */
+	public String getName();
+
+}
@@ -0,0 +1,146 @@
+package preprocessing;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.deckfour.xes.extension.std.XConceptExtension;
+import org.deckfour.xes.extension.std.XLifecycleExtension;
+import org.deckfour.xes.extension.std.XOrganizationalExtension;
+import org.deckfour.xes.extension.std.XTimeExtension;
+import org.deckfour.xes.model.XAttribute;
+import org.deckfour.xes.model.XAttributeLiteral;
+import org.deckfour.xes.model.XAttributeTimestamp;
+import org.deckfour.xes.model.XEvent;
+import org.deckfour.xes.model.XTrace;
+
+/**
+ * Factory of the filters of a FilterPipeline. The attribute keys are resolved when a filter is created, the filters
+ * look up the attributes of the events directly.
+ *
+ * @author Martin Kaeppel
+ */
+public class TraceFilters {
+
+	private TraceFilters() {
+
+	}
+
+	/**
+	 * Accepts traces whose events all have an activity (concept:name)
+	 */
+	public static TraceFilter hasActivities() {
+		return requireLiteral("missing activity", XConceptExtension.KEY_NAME);
+	}
+
+	/**
+	 * Accepts traces whose events all have an originator (org:resource)
+	 */
+	public static TraceFilter hasOriginators() {
+		return requireLiteral("missing originator", XOrganizationalExtension.KEY_RESOURCE);
+	}
+
+	/**
+	 * Accepts traces whose events all have a lifecycle transition (lifecycle:transition)
+	 */
+	public static TraceFilter hasLifecycles() {
+		return requireLiteral("missing lifecycle", XLifecycleExtension.KEY_TRANSITION);
+	}
+
+	/**
+	 * Accepts traces whose events all have a timestamp (time:timestamp)
+	 */
+	public static TraceFilter hasTimestamps() {
+		return allEvents("missing timestamp", event -> event.getAttributes().get(XTimeExtension.KEY_TIMESTAMP) instanceof XAttributeTimestamp);
+	}
+
+	/**
+	 * Accepts traces whose events all have a literal attribute with the given key
+	 */
+	public static TraceFilter requireLiteral(String name, String key) {
+		return allEvents(name, event -> event.getAttributes().get(key) instanceof XAttributeLiteral);
+	}
+
+	/**
+	 * Accepts traces whose number of events is between minimum and maximum (both inclusive)
+	 */
+	public static TraceFilter lengthBetween(int minimum, int maximum) {
+		return create("length not in ["+minimum+","+maximum+"]", trace -> trace.size() >= minimum && trace.size() <= maximum);
+	}
+
+	/**
+	 * Accepts traces whose events all lie in the time window [from, to), events without timestamp are rejected
+	 * @param from	Start of the window in milliseconds
+	 * @param to	End of the window in milliseconds
+	 */
+	public static TraceFilter timeWindow(long from, long to) {
+		return allEvents("outside of time window", event -> {
+			XAttribute attribute = event.getAttributes().get(XTimeExtension.KEY_TIMESTAMP);
+			if(attribute instanceof XAttributeTimestamp) {
+				long timestamp = ((XAttributeTimestamp) attribute).getValueMillis();
+				return timestamp >= from && timestamp < to;
+			}
+			return false;
+		});
+	}
+
+	/**
+	 * Accepts traces whose activities are all contained in the given set
+	 */
+	public static TraceFilter onlyActivities(Set<String> activities) {
+		Set<String> allowed = new HashSet<String>(activities);
+		return allEvents("activity not allowed", event -> allowed.contains(getActivity(event)));
+	}
+
+	/**
+	 * Accepts traces that contain at least one of the given activities
+	 */
+	public static TraceFilter containsActivity(Set<String> activities) {
+		Set<String> required = new HashSet<String>(activities);
+		return create("no required activity", trace -> {
+			for(XEvent event : trace) {
+				if(required.contains(getActivity(event))) {
+					return true;
+				}
+			}
+			return false;
+		});
+	}
+
+	/**
+	 * Creates a filter from a predicate on traces
+	 */
+	public static TraceFilter create(String name, Predicate<XTrace> predicate) {
+		return new TraceFilter() {
+			@Override
+			public boolean accept(XTrace trace) {
+				return predicate.test(trace);
+			}
+
+			@Override
+			public String getName() {
+				return name;
+			}
+		};
+	}
+
+	/**
+	 * Creates a filter that accepts traces whose events all fulfill a predicate
+	 */
+	public static TraceFilter allEvents(String name, Predicate<XEvent> predicate) {
+		return create(name, trace -> {
+			for(XEvent event : trace) {
+				if(predicate.test(event) == false) {
+					return false;
+				}
+			}
+			return true;
+		});
+	}
+
+	private static String getActivity(XEvent event) {
+		XAttribute attribute = event.getAttributes().get(XConceptExtension.KEY_NAME);
+		return attribute == null ? null : attribute.toString();
+	}
+
+}
@@ -0,0 +1,126 @@
+package reducer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentMap;
+
+import org.deckfour.xes.model.XLog;
+
+import com.google.common.collect.MapMaker;
+
+import parser.IntLog;
+import util.LogView;
+
+/**
+ * Random reduction with nested reduction levels. Every trace of a log gets a random rank once, a reduced log with
+ * k traces contains the traces with the k lowest ranks. Hence, a smaller reduced log is always contained in a larger
+ * one. The reduced logs are views of the original log in the order of the log, so they share the trace objects.
+ * The ranks are computed once per log and reused by all reductions of the log.
+ *
+ * @author Martin Kaeppel
+ */
+public class ReducerNested implements Reducer {
+	private long seed;
+	//Ranks of the traces of each log, the logs are identified by identity
+	private ConcurrentMap<XLog, int[]> ranks = new MapMaker().weakKeys().makeMap();
+
+	public ReducerNested() {
+		this(new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * @param seed	For the same seed the traces get the same ranks
+	 */
+	public ReducerNested(long seed) {
+		this.seed = seed;
+	}
+
+	public XLog reduce(XLog log, double targetSize) {
+		return reduce(log, Arrays.asList(targetSize)).get(0);
+	}
+
+	/**
+	 * Creates all reduced logs of the given sizes in a single pass over the ranks
+	 * @param targetSizes	Shares of the traces that are kept
+	 * @return reduced logs in the order of the target sizes
+	 */
+	public List<XLog> reduce(XLog log, List<Double> targetSizes) {
+		int[][] positions = positions(getRanks(log), targetSizes);
+		List<XLog> reducedLogs = new ArrayList<XLog>(positions.length);
+		for(int[] level : positions) {
+			reducedLogs.add(new LogView(log, level));
+		}
+		return reducedLogs;
+	}
+	
+	/**
+	 * Creates all reduced logs of a log in columnar representation, the traces of a reduced log are the same as for
+	 * an XLog with the same number of traces
+	 * @param targetSizes	Shares of the traces that are kept
+	 * @return reduced logs in the order of the target sizes
+	 */
+	public List<IntLog> reduce(IntLog log, List<Double> targetSizes) {
+		int[][] positions = positions(permutation(log.getNumberOfTraces()), targetSizes);
+		List<IntLog> reducedLogs = new ArrayList<IntLog>(positions.length);
+		for(int[] level : positions) {
+			reducedLogs.add(log.select(level));
+		}
+		return reducedLogs;
+	}
+	
+	/**
+	 * Returns the positions of the traces of every level in ascending order
+	 */
+	private int[][] positions(int[] rank, List<Double> targetSizes) {
+		//Number of traces of each level, computed like in ReducerRandom
+		int[] sizes = new int[targetSizes.size()];
+		for(int l = 0; l < sizes.length; l++) {
+			int numberToRemove = (int)(rank.length*(1-targetSizes.get(l)));
+			sizes[l] = rank.length-numberToRemove;
+		}
+		int[][] positions = new int[sizes.length][];
+		int[] filled = new int[sizes.length];
+		for(int l = 0; l < sizes.length; l++) {
+			positions[l] = new int[sizes[l]];
+		}
+		//A trace belongs to every level with more traces than its rank
+		for(int t = 0; t < rank.length; t++) {
+			for(int l = 0; l < sizes.length; l++) {
+				if(rank[t] < sizes[l]) {
+					positions[l][filled[l]] = t;
+					filled[l]++;
+				}
+			}
+		}
+
+		return positions;
+	}
+
+	/**
+	 * Returns the ranks of the traces of a log, the ranks are a random permutation of the positions
+	 */
+	public int[] getRanks(XLog log) {
+		return ranks.computeIfAbsent(log, l -> permutation(l.size()));
+	}
+	
+	/**
+	 * Returns the random permutation of the given number of positions for the seed
+	 */
+	private int[] permutation(int size) {
+		int[] permutation = new int[size];
+		for(int i = 0; i < permutation.length; i++) {
+			permutation[i] = i;
+		}
+		SplittableRandom random = new SplittableRandom(seed);
+		for(int i = permutation.length-1; i > 0; i--) {
+			int j = random.nextInt(i+1);
+			int temp = permutation[i];
+			permutation[i] = permutation[j];
+			permutation[j] = temp;
+		}
+		return permutation;
+	}
+
+}
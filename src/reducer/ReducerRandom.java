@@ -1,53 +1,89 @@
 package reducer;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
+import java.util.SplittableRandom;
 
-import org.deckfour.xes.extension.std.XConceptExtension;
 import org.deckfour.xes.factory.XFactory;
 import org.deckfour.xes.factory.XFactoryBufferedImpl;
 import org.deckfour.xes.model.XLog;
 import org.deckfour.xes.model.XTrace;
 
+import parser.IntLog;
 import parser.Parser;
+import parser.VariantIndex;
 
 /**
  * This class provides different methods to reduce the event log
  * @author Martin Kaeppel
  */
 public class ReducerRandom implements Reducer {
-	
+	private Long seed;
+	private boolean keepActivities;
+
 	public ReducerRandom() {
-		
+
+	}
+
+	/**
+	 * @param seed				For the same seed the same traces are selected
+	 * @param keepActivities	If true every activity of the log is kept (Util.RANDOM_REDUCTION_KEEP_ACTIVITY)
+	 */
+	public ReducerRandom(long seed, boolean keepActivities) {
+		this.seed = seed;
+		this.keepActivities = keepActivities;
 	}
-	
+
 	public XLog reduce(XLog log, double targetSize) {
-		Parser p = new Parser();
-		List<String> caseIds = new ArrayList<String>(p.getCaseIds(log));
-		int numberToRemove = (int)(p.getNumberOfTraces(log)*(1-targetSize));
-		while(numberToRemove > 0) {
-			Collections.shuffle(caseIds);
-			caseIds.remove(0);
-			numberToRemove--;
-		}
-		
+		int[] sample = sample(log.size(), targetSize, keepActivities == true ? new Parser().getVariantIndex(log, false) : null);
+
 		XFactory factory = new XFactoryBufferedImpl();
 		XLog reducedLog = factory.createLog();
-		
-		Set<String> reducedIds = new HashSet<String>(caseIds);
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			XTrace currentTrace = logIterator.next();
-			if(reducedIds.contains(XConceptExtension.instance().extractName(currentTrace))) {
-				reducedLog.add(currentTrace);
-			}
-			
+		for(int trace : sample) {
+			reducedLog.add(log.get(trace));
 		}
-		
 		return reducedLog;
 	}
+
+	/**
+	 * Reduces a log in columnar representation, for the same seed the same traces are selected as for the XLog
+	 */
+	public IntLog reduce(IntLog log, double targetSize) {
+		return log.select(sample(log.getNumberOfTraces(), targetSize, keepActivities == true ? VariantIndex.build(log, false) : null));
+	}
+
+	/**
+	 * Returns the positions of the selected traces in ascending order
+	 * @param index		Variant index of the log, only needed if the activities are kept
+	 */
+	private int[] sample(int numberOfTraces, double targetSize, VariantIndex index) {
+		int numberToRemove = (int)(numberOfTraces*(1-targetSize));
+		int numberToKeep = numberOfTraces-numberToRemove;
+		SplittableRandom random = createRandom();
+
+		if(keepActivities == true) {
+			return Sampling.sampleKeepActivities(index, numberToKeep, random);
+		}
+		return Sampling.sample(numberOfTraces, numberToKeep, random);
+	}
+
+	/**
+	 * Reduces a streamed log in a single pass, e.g. the traces of loader.XesStreamReader
+	 * @param traces			Traces of the log
+	 * @param numberOfTraces	Number of traces of the reduced log
+	 */
+	public XLog reduce(Iterator<XTrace> traces, int numberOfTraces) {
+		List<XTrace> sample = Sampling.reservoir(traces, numberOfTraces, createRandom());
+		XFactory factory = new XFactoryBufferedImpl();
+		XLog reducedLog = factory.createLog();
+		reducedLog.addAll(sample);
+		return reducedLog;
+	}
+
+	private SplittableRandom createRandom() {
+		if(seed == null) {
+			return new SplittableRandom();
+		}
+		return new SplittableRandom(seed);
+	}
 }
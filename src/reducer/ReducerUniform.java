@@ -1,96 +1,78 @@
 package reducer;
 
+import java.util.SplittableRandom;
+
+import org.deckfour.xes.factory.XFactory;
+import org.deckfour.xes.factory.XFactoryBufferedImpl;
 import org.deckfour.xes.model.XLog;
 
+import parser.IntLog;
+import parser.Parser;
+import parser.VariantIndex;
+
+/**
+ * Reduces an event log uniformly over the trace variants, i.e. the same share of traces is selected from every
+ * variant. Variants with too few traces for the share are merged randomly, so that they are still represented.
+ */
 public class ReducerUniform implements Reducer {
+	private Long seed;
+	private boolean keepActivities;
 	
 	public ReducerUniform() {
 		
 	}
+	
+	/**
+	 * @param seed				For the same seed the same traces are selected
+	 * @param keepActivities	If true every activity of the log is kept (Util.UNIFORM_TYPE_REDUCTION_KEEP_ACTIVITY)
+	 */
+	public ReducerUniform(long seed, boolean keepActivities) {
+		this.seed = seed;
+		this.keepActivities = keepActivities;
+	}
 
-	//TO DO: Adapt to new version, bug fix
 	public XLog reduce(XLog log, double targetSize) {
-		/*
-		Parser p = new Parser();
 		if(targetSize >= 0 && targetSize <= 1) {
-			int sizeNumber = 0;
-			sizeNumber = (int) Math.round(1/targetSize);
-			XLog newProcessLog = null;
-			
-			
-				List<Set<String>> sufficientLength = new ArrayList<Set<String>>();
-				List<List<Classifier>> notSufficientLength = new ArrayList<List<Classifier>>();
-				Set<TraceVariant> types = p.getTraceVariants(log);
-				
-				for(List<Classifier> element : types.keySet()) {
-					if(types.get(element).getNumber() >= sizeNumber) {
-						sufficientLength.add(types.get(element).getCaseIds());
-					}
-					else {
-						notSufficientLength.add(element);
-					}
-					
-				}
-				
-				//SOlange nicht leer fasse zu neuen Mengen zusammen
-				while(notSufficientLength.size() != 0) {
-					if(notSufficientLength.size() == 1) {
-						//Kann nicht mehr gemerged werden
-						sufficientLength.add(types.get(notSufficientLength.get(0)).getCaseIds());
-						notSufficientLength.remove(0);
-					}
-					else {
-						//Merge die zwei Vorderen
-						Collections.shuffle(notSufficientLength);
-						List<Classifier> firstElement = notSufficientLength.remove(0);
-						Collections.shuffle(notSufficientLength);
-						List<Classifier> secondElement = notSufficientLength.remove(0);
-						//Merge first element and second Element
-						//Wenn merge Menge groesser als benoetigte Lenge bernehme dieses Bucket anderenfalls, fuege es wieder hinzu....
-						//Behalte Type 1 als Type bei....	
-						Set<String> mergedSet = merge(types.get(firstElement).getCaseIds(), types.get(secondElement).getCaseIds());
-						if(mergedSet.size() >= sizeNumber) {
-							sufficientLength.add(mergedSet);
-						}
-						else {
-							types.get(firstElement).setCaseIds(mergedSet);
-							notSufficientLength.add(firstElement);
-						}
-					}	
-				}
-							
-				//Selektiere von jedem Typ die notwendige Prozentzahl
-				Set<String> selectCases = new HashSet<String>();
-				
-				
-				for(Set<String> e : sufficientLength) {
-					List<String> elementAsList = new ArrayList<String>();
-					elementAsList.addAll(e);
-					
-					int reducedNumberOfTraces = 0;
-					reducedNumberOfTraces = (int) Math.round(e.size()*percentage);
-					
-					while(reducedNumberOfTraces != 0) {
-						Collections.shuffle(elementAsList);
-						selectCases.add(elementAsList.remove(0));
-						reducedNumberOfTraces--;	
-					}
-				}
-				
-				
-				
-				//Uebernehme nur die selected cases in einen neues Process Log
-				newProcessLog = generateProcessLog(selectCases);
-			
+			int[] sample = sample(new Parser().getVariantIndex(log, false), targetSize);
 			
+			//Uebernehme nur die selected cases in einen neues Process Log
+			XFactory factory = new XFactoryBufferedImpl();
+			XLog newProcessLog = factory.createLog();
+			for(int trace : sample) {
+				newProcessLog.add(log.get(trace));
+			}
 			return newProcessLog;
-			
 		}
 		else {
 			System.err.println("Reduktionsfaktor muss zwischen 0 und 1 liegen!");
 			return null;
 		}
-		*/
-		return null;
+	}
+	
+	/**
+	 * Reduces a log in columnar representation, for the same seed the same traces are selected as for the XLog
+	 */
+	public IntLog reduce(IntLog log, double targetSize) {
+		if(targetSize >= 0 && targetSize <= 1) {
+			return log.select(sample(VariantIndex.build(log, false), targetSize));
+		}
+		else {
+			System.err.println("Reduktionsfaktor muss zwischen 0 und 1 liegen!");
+			return null;
+		}
+	}
+	
+	/**
+	 * Returns the positions of the selected traces in ascending order
+	 */
+	private int[] sample(VariantIndex index, double targetSize) {
+		SplittableRandom random = seed == null ? new SplittableRandom() : new SplittableRandom(seed);
+		
+		//Selektiere von jedem Typ die notwendige Prozentzahl
+		int[] sample = Sampling.stratified(index.getTracesByVariant(), targetSize, random);
+		if(keepActivities == true) {
+			sample = Sampling.keepActivities(index, sample, random);
+		}
+		return sample;
 	}
 }
@@ -0,0 +1,281 @@
+package reducer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import parser.IntSequence;
+import parser.VariantIndex;
+
+/**
+ * Sampling methods for the reduction of event logs. All methods run in linear time, use the given random number
+ * generator only and return the sampled positions in ascending order, so that the order of the log is kept.
+ *
+ * @author Martin Kaeppel
+ */
+public class Sampling {
+
+	private Sampling() {
+
+	}
+
+	/**
+	 * Samples positions without replacement with a partial Fisher-Yates shuffle
+	 * @param n			Number of positions
+	 * @param k			Number of positions to sample
+	 * @return k distinct positions between 0 and n-1 in ascending order
+	 */
+	public static int[] sample(int n, int k, SplittableRandom random) {
+		int[] positions = new int[n];
+		for(int i = 0; i < n; i++) {
+			positions[i] = i;
+		}
+		return sample(positions, n, k, random);
+	}
+
+	/**
+	 * Samples elements of an array without replacement, the first n elements of the array are shuffled partially
+	 * @return k sampled elements in ascending order
+	 */
+	private static int[] sample(int[] elements, int n, int k, SplittableRandom random) {
+		k = Math.max(0, Math.min(k, n));
+		for(int i = 0; i < k; i++) {
+			int j = i+random.nextInt(n-i);
+			int temp = elements[i];
+			elements[i] = elements[j];
+			elements[j] = temp;
+		}
+		int[] sample = Arrays.copyOf(elements, k);
+		Arrays.sort(sample);
+		return sample;
+	}
+
+	/**
+	 * Samples elements of a source with unknown size in a single pass (reservoir sampling)
+	 * @param source	Source of the elements, e.g. the traces of a streamed log
+	 * @param k			Number of elements to sample
+	 * @return at most k elements in the order of the source
+	 */
+	public static <T> List<T> reservoir(Iterator<T> source, int k, SplittableRandom random) {
+		Object[] elements = new Object[k];
+		long[] positions = new long[k];
+		long position = 0;
+		while(source.hasNext()) {
+			T element = source.next();
+			if(position < k) {
+				elements[(int) position] = element;
+				positions[(int) position] = position;
+			}
+			else {
+				long j = random.nextLong(position+1);
+				if(j < k) {
+					elements[(int) j] = element;
+					positions[(int) j] = position;
+				}
+			}
+			position++;
+		}
+
+		//Restore the order of the source
+		int size = (int) Math.min(position, k);
+		Integer[] order = new Integer[size];
+		for(int i = 0; i < size; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> Long.compare(positions[a], positions[b]));
+		List<T> sample = new ArrayList<T>(size);
+		for(int i = 0; i < size; i++) {
+			@SuppressWarnings("unchecked")
+			T element = (T) elements[order[i]];
+			sample.add(element);
+		}
+		return sample;
+	}
+
+	/**
+	 * Samples the same share of traces from every stratum. Strata with less than 1/ratio traces are merged in random
+	 * order until the merged stratum is large enough, so that also rare strata are represented.
+	 * @param strata	Positions of the traces of each stratum, e.g. the traces of each variant
+	 * @param ratio		Share of the traces that is sampled from each stratum
+	 * @return sampled positions in ascending order
+	 */
+	public static int[] stratified(int[][] strata, double ratio, SplittableRandom random) {
+		if(ratio <= 0) {
+			return new int[0];
+		}
+		int minimalSize = (int) Math.round(1/ratio);
+		int[] smallStrata = new int[strata.length];
+		int numberOfSmallStrata = 0;
+		int total = 0;
+		for(int s = 0; s < strata.length; s++) {
+			total = total+strata[s].length;
+			if(strata[s].length < minimalSize) {
+				smallStrata[numberOfSmallStrata] = s;
+				numberOfSmallStrata++;
+			}
+		}
+		//Random order of the small strata for the merging
+		shuffle(smallStrata, numberOfSmallStrata, random);
+
+		int[] sample = new int[total];
+		int sampleSize = 0;
+		int[] buffer = new int[Math.max(minimalSize, 1)];
+		for(int s = 0; s < strata.length; s++) {
+			if(strata[s].length >= minimalSize) {
+				int[] stratum = strata[s].clone();
+				sampleSize = addSample(sample, sampleSize, stratum, stratum.length, ratio, random);
+			}
+		}
+		int bufferSize = 0;
+		for(int i = 0; i < numberOfSmallStrata; i++) {
+			int[] stratum = strata[smallStrata[i]];
+			if(buffer.length < bufferSize+stratum.length) {
+				buffer = Arrays.copyOf(buffer, Math.max(2*buffer.length, bufferSize+stratum.length));
+			}
+			System.arraycopy(stratum, 0, buffer, bufferSize, stratum.length);
+			bufferSize = bufferSize+stratum.length;
+			//The last merged stratum is kept even if it is too small
+			if(bufferSize >= minimalSize || i == numberOfSmallStrata-1) {
+				sampleSize = addSample(sample, sampleSize, buffer, bufferSize, ratio, random);
+				bufferSize = 0;
+			}
+		}
+		sample = Arrays.copyOf(sample, sampleSize);
+		Arrays.sort(sample);
+		return sample;
+	}
+
+	private static int addSample(int[] sample, int sampleSize, int[] stratum, int stratumSize, double ratio, SplittableRandom random) {
+		int[] stratumSample = sample(stratum, stratumSize, (int) Math.round(stratumSize*ratio), random);
+		System.arraycopy(stratumSample, 0, sample, sampleSize, stratumSample.length);
+		return sampleSize+stratumSample.length;
+	}
+
+	/**
+	 * Samples traces so that every activity of the log occurs in the sample. At first, for every activity that is
+	 * not yet covered a random trace with the activity is selected, afterwards the sample is filled up randomly.
+	 * @param index		Variant index of the log
+	 * @param k			Number of traces to sample, more traces are returned if k traces cannot cover all activities
+	 * @return sampled positions in ascending order
+	 */
+	public static int[] sampleKeepActivities(VariantIndex index, int k, SplittableRandom random) {
+		int[] selected = coverActivities(index, random);
+		int numberOfSelected = 0;
+		boolean[] isSelected = new boolean[index.getNumberOfTraces()];
+		for(int trace : selected) {
+			isSelected[trace] = true;
+			numberOfSelected++;
+		}
+		int[] remaining = new int[index.getNumberOfTraces()-numberOfSelected];
+		int r = 0;
+		for(int t = 0; t < isSelected.length; t++) {
+			if(isSelected[t] == false) {
+				remaining[r] = t;
+				r++;
+			}
+		}
+		int[] fill = sample(remaining, remaining.length, k-numberOfSelected, random);
+		int[] sample = Arrays.copyOf(selected, selected.length+fill.length);
+		System.arraycopy(fill, 0, sample, selected.length, fill.length);
+		Arrays.sort(sample);
+		return sample;
+	}
+
+	/**
+	 * Adds traces to a given sample until every activity of the log occurs in the sample
+	 * @param sample	Sampled positions in ascending order
+	 * @return sampled positions and the added positions in ascending order
+	 */
+	public static int[] keepActivities(VariantIndex index, int[] sample, SplittableRandom random) {
+		boolean[] covered = new boolean[index.getDictionary().size()];
+		for(int trace : sample) {
+			cover(index.getSequence(index.getVariant(trace)), covered);
+		}
+		int[] added = coverActivities(index, covered, random);
+		int[] extendedSample = Arrays.copyOf(sample, sample.length+added.length);
+		System.arraycopy(added, 0, extendedSample, sample.length, added.length);
+		Arrays.sort(extendedSample);
+		return extendedSample;
+	}
+
+	private static int[] coverActivities(VariantIndex index, SplittableRandom random) {
+		return coverActivities(index, new boolean[index.getDictionary().size()], random);
+	}
+
+	/**
+	 * Selects for every activity that is not covered a random trace with the activity, the activities are
+	 * processed in random order
+	 */
+	private static int[] coverActivities(VariantIndex index, boolean[] covered, SplittableRandom random) {
+		int numberOfActivities = covered.length;
+		//Variants that contain an activity and the number of their traces
+		List<List<Integer>> variantsOfActivity = new ArrayList<List<Integer>>(numberOfActivities);
+		int[] tracesOfActivity = new int[numberOfActivities];
+		for(int a = 0; a < numberOfActivities; a++) {
+			variantsOfActivity.add(new ArrayList<Integer>());
+		}
+		int[] lastVariant = new int[numberOfActivities];
+		Arrays.fill(lastVariant, -1);
+		for(int v = 0; v < index.getNumberOfVariants(); v++) {
+			IntSequence sequence = index.getSequence(v);
+			for(int i = 0; i < sequence.length(); i++) {
+				int activity = sequence.get(i);
+				if(activity >= 0 && lastVariant[activity] != v) {
+					lastVariant[activity] = v;
+					variantsOfActivity.get(activity).add(v);
+					tracesOfActivity[activity] = tracesOfActivity[activity]+index.getCount(v);
+				}
+			}
+		}
+
+		int[] activities = new int[numberOfActivities];
+		for(int a = 0; a < numberOfActivities; a++) {
+			activities[a] = a;
+		}
+		shuffle(activities, numberOfActivities, random);
+
+		int[][] tracesByVariant = null;
+		int[] selected = new int[numberOfActivities];
+		int numberOfSelected = 0;
+		for(int activity : activities) {
+			if(covered[activity] == true || tracesOfActivity[activity] == 0) {
+				continue;
+			}
+			if(tracesByVariant == null) {
+				tracesByVariant = index.getTracesByVariant();
+			}
+			//Every trace with the activity is selected with the same probability
+			int r = random.nextInt(tracesOfActivity[activity]);
+			for(int variant : variantsOfActivity.get(activity)) {
+				if(r < index.getCount(variant)) {
+					selected[numberOfSelected] = tracesByVariant[variant][r];
+					numberOfSelected++;
+					cover(index.getSequence(variant), covered);
+					break;
+				}
+				r = r-index.getCount(variant);
+			}
+		}
+		return Arrays.copyOf(selected, numberOfSelected);
+	}
+
+	private static void cover(IntSequence sequence, boolean[] covered) {
+		for(int i = 0; i < sequence.length(); i++) {
+			if(sequence.get(i) >= 0) {
+				covered[sequence.get(i)] = true;
+			}
+		}
+	}
+
+	private static void shuffle(int[] elements, int n, SplittableRandom random) {
+		for(int i = n-1; i > 0; i--) {
+			int j = random.nextInt(i+1);
+			int temp = elements[i];
+			elements[i] = elements[j];
+			elements[j] = temp;
+		}
+	}
+
+}
@@ -0,0 +1,25 @@
+package splitter;
+
+import parser.IntLog;
+/**
+ * This class encapsulates a training log and the corresponding test log in columnar representation
+ * @author Martin Kaeppel
+ */
+public class IntTestTrainObject {
+	private IntLog trainingLog;
+	private IntLog testLog;
+
+	public IntTestTrainObject(IntLog trainingLog, IntLog testLog) {
+		this.trainingLog = trainingLog;
+		this.testLog = testLog;
+	}
+
+	public IntLog getTrainingLog() {
+		return this.trainingLog;
+	}
+
+	public IntLog getTestLog() {
+		return this.testLog;
+	}
+
+}
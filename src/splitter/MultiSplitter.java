@@ -0,0 +1,15 @@
+package splitter;
+
+import java.util.List;
+
+import org.deckfour.xes.model.XLog;
+
+/**
+ * Splitter that creates several splits of an event log at once, e.g. for cross validation
+ * @author Martin Kaeppel
+ */
+public interface MultiSplitter {
+	
+	public List<TestTrainObject> splitEventLog(XLog log);
+
+}
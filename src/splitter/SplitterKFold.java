@@ -0,0 +1,88 @@
+package splitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.deckfour.xes.model.XLog;
+
+import util.LogView;
+
+/**
+ * This class splits an event log into k folds for cross validation. Each fold is the test data of one split,
+ * the other folds form the training data. The folds are taken from a random permutation of the traces, all splits
+ * are created in one pass over the log and are views of the log in the order of the log.
+ * 
+ * @author Martin Kaeppel
+ */
+public class SplitterKFold implements MultiSplitter {
+	private int k;
+	private Long seed;
+	
+	/**
+	 * @param k		Number of folds
+	 */
+	public SplitterKFold(int k) {
+		this.k = k;
+	}
+	
+	/**
+	 * @param k		Number of folds
+	 * @param seed	For the same seed the same folds are created
+	 */
+	public SplitterKFold(int k, long seed) {
+		this.k = k;
+		this.seed = seed;
+	}
+	
+	@Override
+	public List<TestTrainObject> splitEventLog(XLog log) {
+		SplittableRandom random = seed == null ? new SplittableRandom() : new SplittableRandom(seed);
+		int size = log.size();
+		
+		//The position of a trace in the permutation determines its fold
+		int[] permutation = new int[size];
+		for(int i = 0; i < size; i++) {
+			permutation[i] = i;
+		}
+		for(int i = size-1; i > 0; i--) {
+			int j = random.nextInt(i+1);
+			int temp = permutation[i];
+			permutation[i] = permutation[j];
+			permutation[j] = temp;
+		}
+		int[] folds = new int[size];
+		int[] foldSizes = new int[k];
+		for(int i = 0; i < size; i++) {
+			folds[permutation[i]] = (int) ((long) i*k/size);
+			foldSizes[folds[permutation[i]]]++;
+		}
+		
+		int[][] testPositions = new int[k][];
+		int[][] trainingPositions = new int[k][];
+		for(int f = 0; f < k; f++) {
+			testPositions[f] = new int[foldSizes[f]];
+			trainingPositions[f] = new int[size-foldSizes[f]];
+		}
+		int[] filledTest = new int[k];
+		int[] filledTraining = new int[k];
+		for(int position = 0; position < size; position++) {
+			for(int f = 0; f < k; f++) {
+				if(folds[position] == f) {
+					testPositions[f][filledTest[f]] = position;
+					filledTest[f]++;
+				}
+				else {
+					trainingPositions[f][filledTraining[f]] = position;
+					filledTraining[f]++;
+				}
+			}
+		}
+		
+		List<TestTrainObject> splits = new ArrayList<TestTrainObject>(k);
+		for(int f = 0; f < k; f++) {
+			splits.add(new TestTrainObject(new LogView(log, trainingPositions[f]), new LogView(log, testPositions[f])));
+		}
+		return splits;
+	}
+}
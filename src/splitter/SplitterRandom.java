@@ -1,17 +1,12 @@
 package splitter;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.List;
+import java.util.SplittableRandom;
 
-import org.deckfour.xes.extension.std.XConceptExtension;
-import org.deckfour.xes.factory.XFactory;
-import org.deckfour.xes.factory.XFactoryBufferedImpl;
 import org.deckfour.xes.model.XLog;
-import org.deckfour.xes.model.XTrace;
 
-import parser.Parser;
+import parser.IntLog;
+import reducer.Sampling;
+import util.LogView;
 
 /**
  * This class splits and event log into test and trainingsdata
@@ -20,44 +15,71 @@ import parser.Parser;
  *
  */
 public class SplitterRandom implements Splitter {
+	private Long seed;
 	
 	public SplitterRandom() {
 		
 	}
 	
+	/**
+	 * @param seed	For the same seed the same traces are selected as test data
+	 */
+	public SplitterRandom(long seed) {
+		this.seed = seed;
+	}
+	
 	public TestTrainObject splitEventLog(XLog log, double testSize) {
-		Parser p = new Parser();
+		SplittableRandom random = seed == null ? new SplittableRandom() : new SplittableRandom(seed);
 		
-		int size = p.getNumberOfTraces(log);
+		int size = log.size();
 		int numberOfTestElements = (int)(testSize*size);
 		
-		XFactory factory = new XFactoryBufferedImpl();
-		XLog testLog = factory.createLog();
-		XLog trainingLog = factory.createLog();
+		int[] testPositions = Sampling.sample(size, numberOfTestElements, random);
+		return split(log, testPositions);
+	}
+	
+	/**
+	 * Splits a log in columnar representation, for the same seed the same traces are selected as for the XLog
+	 */
+	public IntTestTrainObject splitEventLog(IntLog log, double testSize) {
+		SplittableRandom random = seed == null ? new SplittableRandom() : new SplittableRandom(seed);
 		
-		List<String> caseIds = new ArrayList<String>(p.getCaseIds(log));
-		List<String> testIds = new ArrayList<String>();
+		int size = log.getNumberOfTraces();
+		int numberOfTestElements = (int)(testSize*size);
 		
-		while(numberOfTestElements > 0) {
-			Collections.shuffle(caseIds);
-			String id = caseIds.remove(0);
-			numberOfTestElements--;
-			testIds.add(id);
-		}
-				
-		Iterator<XTrace> logIterator = log.iterator();
-		while(logIterator.hasNext()) {
-			XTrace currentTrace = logIterator.next();
-			if(testIds.contains(currentTrace.getAttributes().get(XConceptExtension.KEY_NAME).toString())) {
-				testLog.add(currentTrace);
-			}
-			else {
-				trainingLog.add(currentTrace);
-			}
-		}
+		int[] testPositions = Sampling.sample(size, numberOfTestElements, random);
+		return new IntTestTrainObject(log.select(complement(size, testPositions)), log.select(testPositions));
+	}
+	
+	/**
+	 * Splits a log into the traces at the given positions (test data) and the remaining traces (training data).
+	 * Both logs are views of the given log in the order of the log.
+	 * @param testPositions		Positions of the test traces in ascending order
+	 */
+	public static TestTrainObject split(XLog log, int[] testPositions) {
+		int[] trainingPositions = complement(log.size(), testPositions);
 		
-		TestTrainObject trainTest = new TestTrainObject(trainingLog, testLog);
+		TestTrainObject trainTest = new TestTrainObject(new LogView(log, trainingPositions), new LogView(log, testPositions));
 		
 		return trainTest;
 	}
+	
+	/**
+	 * Returns the positions that are not contained in the given positions in ascending order
+	 */
+	private static int[] complement(int size, int[] positions) {
+		boolean[] contained = new boolean[size];
+		for(int position : positions) {
+			contained[position] = true;
+		}
+		int[] complement = new int[size-positions.length];
+		int t = 0;
+		for(int position = 0; position < size; position++) {
+			if(contained[position] == false) {
+				complement[t] = position;
+				t++;
+			}
+		}
+		return complement;
+	}
 }
@@ -0,0 +1,55 @@
+package splitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.deckfour.xes.model.XLog;
+
+import reducer.Sampling;
+
+/**
+ * This class splits an event log several times randomly into test and training data (repeated holdout).
+ * Each split uses an own random number generator that is split from the seed, the test and training logs
+ * are views of the log in the order of the log.
+ * 
+ * @author Martin Kaeppel
+ */
+public class SplitterRepeatedHoldout implements MultiSplitter {
+	private int repetitions;
+	private double testSize;
+	private Long seed;
+	
+	/**
+	 * @param repetitions	Number of splits
+	 * @param testSize		Share of the traces that are used as test data
+	 */
+	public SplitterRepeatedHoldout(int repetitions, double testSize) {
+		this.repetitions = repetitions;
+		this.testSize = testSize;
+	}
+	
+	/**
+	 * @param repetitions	Number of splits
+	 * @param testSize		Share of the traces that are used as test data
+	 * @param seed			For the same seed the same splits are created
+	 */
+	public SplitterRepeatedHoldout(int repetitions, double testSize, long seed) {
+		this.repetitions = repetitions;
+		this.testSize = testSize;
+		this.seed = seed;
+	}
+	
+	@Override
+	public List<TestTrainObject> splitEventLog(XLog log) {
+		SplittableRandom random = seed == null ? new SplittableRandom() : new SplittableRandom(seed);
+		int numberOfTestElements = (int)(testSize*log.size());
+		
+		List<TestTrainObject> splits = new ArrayList<TestTrainObject>(repetitions);
+		for(int r = 0; r < repetitions; r++) {
+			int[] testPositions = Sampling.sample(log.size(), numberOfTestElements, random.split());
+			splits.add(SplitterRandom.split(log, testPositions));
+		}
+		return splits;
+	}
+}
@@ -0,0 +1,275 @@
+package splitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+import org.deckfour.xes.extension.std.XTimeExtension;
+import org.deckfour.xes.factory.XFactory;
+import org.deckfour.xes.factory.XFactoryBufferedImpl;
+import org.deckfour.xes.model.XAttribute;
+import org.deckfour.xes.model.XAttributeMap;
+import org.deckfour.xes.model.XAttributeTimestamp;
+import org.deckfour.xes.model.XEvent;
+import org.deckfour.xes.model.XLog;
+import org.deckfour.xes.model.XTrace;
+
+import com.google.common.collect.MapMaker;
+
+import augmentation.SyntheticTrace;
+import parser.IntLog;
+import util.LogView;
+
+/**
+ * Index of the traces of a log sorted by their start time, i.e. the timestamp of the first event. The index is
+ * built once per log and supports splits by ratio, sliding windows and strict cutoffs. Traces without start time
+ * are sorted to the end, traces with the same start time keep the order of the log.
+ * The test and training logs are views of the log in the order of the log.
+ *
+ * @author Martin Kaeppel
+ */
+public class StartTimeIndex {
+	//Start time of traces without events or timestamp
+	public final static long NO_START_TIME = Long.MAX_VALUE;
+
+	private final static ConcurrentMap<XLog, StartTimeIndex> indexes = new MapMaker().weakKeys().makeMap();
+
+	private XLog log;
+	//Start times in ascending order
+	private long[] startTimes;
+	//Positions of the traces in the log in the order of the start times
+	private int[] order;
+
+	private StartTimeIndex(XLog log) {
+		this.log = log;
+		long[] times = new long[log.size()];
+		int t = 0;
+		for(XTrace trace : log) {
+			times[t] = trace.isEmpty() ? NO_START_TIME : getTimestamp(trace.get(0));
+			t++;
+		}
+		order = new int[times.length];
+		for(int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		sort(order, times);
+		startTimes = new long[times.length];
+		for(int i = 0; i < order.length; i++) {
+			startTimes[i] = times[order[i]];
+		}
+	}
+
+	/**
+	 * Returns the index of a log, the index is built on the first call
+	 */
+	public static StartTimeIndex get(XLog log) {
+		return indexes.computeIfAbsent(log, StartTimeIndex::new);
+	}
+
+	/**
+	 * Splits the log so that the earliest traces form the training data and the latest traces the test data
+	 * @param testSize	Share of the traces that are used as test data
+	 */
+	public TestTrainObject split(double testSize) {
+		int numberOfTrainingElements = order.length-(int)(testSize*order.length);
+		return new TestTrainObject(view(0, numberOfTrainingElements), view(numberOfTrainingElements, order.length));
+	}
+
+	/**
+	 * Splits a log in columnar representation like split(double), the traces of both logs are in the order of the log
+	 * @param testSize	Share of the traces that are used as test data
+	 */
+	public static IntTestTrainObject split(IntLog log, double testSize) {
+		long[] times = new long[log.getNumberOfTraces()];
+		int[] order = new int[times.length];
+		for(int t = 0; t < times.length; t++) {
+			long startTime = log.getTraceLength(t) == 0 ? IntLog.NO_TIMESTAMP : log.getTimestamp(log.getTraceStart(t));
+			times[t] = startTime == IntLog.NO_TIMESTAMP ? NO_START_TIME : startTime;
+			order[t] = t;
+		}
+		sort(order, times);
+		int numberOfTrainingElements = order.length-(int)(testSize*order.length);
+		int[] trainingPositions = Arrays.copyOfRange(order, 0, numberOfTrainingElements);
+		int[] testPositions = Arrays.copyOfRange(order, numberOfTrainingElements, order.length);
+		Arrays.sort(trainingPositions);
+		Arrays.sort(testPositions);
+		return new IntTestTrainObject(log.select(trainingPositions), log.select(testPositions));
+	}
+
+	/**
+	 * Splits the log for several ratios with the same index
+	 */
+	public List<TestTrainObject> split(List<Double> testSizes) {
+		List<TestTrainObject> splits = new ArrayList<TestTrainObject>(testSizes.size());
+		for(Double testSize : testSizes) {
+			splits.add(split(testSize.doubleValue()));
+		}
+		return splits;
+	}
+
+	/**
+	 * Splits the log into consecutive time windows. The training data of a split are the traces that start in
+	 * [start, start+trainingWindow), the test data the traces that start in [start+trainingWindow, start+trainingWindow+testWindow).
+	 * The first window starts with the earliest trace, the windows are moved by step until no trace is left for testing.
+	 * @param trainingWindow	Length of the training window in milliseconds
+	 * @param testWindow		Length of the test window in milliseconds
+	 * @param step				Distance of consecutive windows in milliseconds
+	 */
+	public List<TestTrainObject> slidingWindow(long trainingWindow, long testWindow, long step) {
+		List<TestTrainObject> splits = new ArrayList<TestTrainObject>();
+		int numberOfTimedTraces = lowerBound(NO_START_TIME);
+		if(numberOfTimedTraces == 0 || step <= 0) {
+			return splits;
+		}
+		long lastStartTime = startTimes[numberOfTimedTraces-1];
+		for(long start = startTimes[0]; start+trainingWindow <= lastStartTime; start = start+step) {
+			int trainingStart = lowerBound(start);
+			int testStart = lowerBound(start+trainingWindow);
+			int testEnd = lowerBound(start+trainingWindow+testWindow);
+			splits.add(new TestTrainObject(view(trainingStart, testStart), view(testStart, testEnd)));
+		}
+		return splits;
+	}
+
+	/**
+	 * Splits the log at a point in time. The test data are the traces that start at or after the cutoff. The training
+	 * data are the traces that start before the cutoff, truncated to their events before the cutoff, so that the
+	 * training data contain no information after the cutoff. The truncated traces share the events of the log.
+	 * @param cutoff	Point in time in milliseconds
+	 */
+	public TestTrainObject splitAtCutoff(long cutoff) {
+		int testStart = lowerBound(cutoff);
+		int[] trainingPositions = positions(0, testStart);
+
+		XFactory factory = new XFactoryBufferedImpl();
+		XLog trainingLog = factory.createLog((XAttributeMap) log.getAttributes().clone());
+		trainingLog.getExtensions().addAll(log.getExtensions());
+		trainingLog.getClassifiers().addAll(log.getClassifiers());
+		trainingLog.getGlobalTraceAttributes().addAll(log.getGlobalTraceAttributes());
+		trainingLog.getGlobalEventAttributes().addAll(log.getGlobalEventAttributes());
+		for(int position : trainingPositions) {
+			XTrace trace = log.get(position);
+			int length = 0;
+			while(length < trace.size() && getTimestamp(trace.get(length)) < cutoff) {
+				length++;
+			}
+			if(length == trace.size()) {
+				trainingLog.add(trace);
+			}
+			else {
+				trainingLog.add(new SyntheticTrace(trace, 0, length));
+			}
+		}
+		return new TestTrainObject(trainingLog, view(testStart, order.length));
+	}
+
+	/**
+	 * Splits the log at the start time of the first test trace of the given ratio and truncates the training traces
+	 * @param testSize	Share of the traces that are used as test data
+	 */
+	public TestTrainObject splitAtCutoff(double testSize) {
+		int numberOfTrainingElements = order.length-(int)(testSize*order.length);
+		long cutoff = numberOfTrainingElements < order.length ? startTimes[numberOfTrainingElements] : NO_START_TIME;
+		return splitAtCutoff(cutoff);
+	}
+
+	/**
+	 * Returns the number of traces that start before the given time
+	 */
+	public int lowerBound(long time) {
+		int low = 0;
+		int high = startTimes.length;
+		while(low < high) {
+			int middle = (low+high) >>> 1;
+			if(startTimes[middle] < time) {
+				low = middle+1;
+			}
+			else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the start time of the trace with the given rank
+	 */
+	public long getStartTime(int rank) {
+		return startTimes[rank];
+	}
+
+	/**
+	 * Returns the position in the log of the trace with the given rank
+	 */
+	public int getPosition(int rank) {
+		return order[rank];
+	}
+
+	public int size() {
+		return order.length;
+	}
+
+	private XLog view(int from, int to) {
+		return new LogView(log, positions(from, to));
+	}
+
+	/**
+	 * Returns the positions of the traces with the ranks from (inclusive) to (exclusive) in the order of the log
+	 */
+	private int[] positions(int from, int to) {
+		int[] positions = Arrays.copyOfRange(order, from, to);
+		Arrays.sort(positions);
+		return positions;
+	}
+
+	private static long getTimestamp(XEvent event) {
+		XAttribute attribute = event.getAttributes().get(XTimeExtension.KEY_TIMESTAMP);
+		if(attribute instanceof XAttributeTimestamp) {
+			return ((XAttributeTimestamp) attribute).getValueMillis();
+		}
+		return NO_START_TIME;
+	}
+
+	/**
+	 * Stable merge sort of the positions by their times
+	 */
+	private static void sort(int[] positions, long[] times) {
+		int[] buffer = new int[positions.length];
+		for(int width = 1; width < positions.length; width = 2*width) {
+			for(int low = 0; low < positions.length-width; low = low+2*width) {
+				int middle = low+width;
+				int high = Math.min(low+2*width, positions.length);
+				if(times[positions[middle-1]] <= times[positions[middle]]) {
+					continue;
+				}
+				int i = low;
+				int j = middle;
+				int k = low;
+				while(i < middle && j < high) {
+					if(times[positions[j]] < times[positions[i]]) {
+						buffer[k] = positions[j];
+						j++;
+					}
+					else {
+						buffer[k] = positions[i];
+						i++;
+					}
+					k++;
+				}
+				while(i < middle) {
+					buffer[k] = positions[i];
+					i++;
+					k++;
+				}
+				while(j < high) {
+					buffer[k] = positions[j];
+					j++;
+					k++;
+				}
+				System.arraycopy(buffer, low, positions, low, high-low);
+			}
+		}
+	}
+
+}
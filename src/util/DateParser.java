@@ -0,0 +1,130 @@
+package util;
+
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+import org.deckfour.xes.model.XLog;
+
+import com.google.common.collect.MapMaker;
+
+/**
+ * Parses timestamps with immutable formatters, so that a parser can be used by several threads at the same time.
+ * The formats are detected automatically, the format that succeeded last is tried first. Failed attempts are
+ * detected via the parse position and do not throw exceptions.
+ *
+ * @author Martin Kaeppel
+ */
+public class DateParser {
+	//Formats of Util.formatStrings, the year is parsed as proleptic year
+	public final static List<String> PATTERNS = Arrays.asList("uuuu-MM-dd'T'HH:mm:ssSSSXXX", "uuuu-MM-dd'T'HH:mm:ss.SSSXXX", "uuuu-MM-dd'T'HH:mm:ssXXX");
+
+	private final static DateParser DEFAULT = new DateParser();
+	//One parser per log, so that the detected format of a log does not influence the other logs
+	private final static ConcurrentMap<XLog, DateParser> PARSERS = new MapMaker().weakKeys().makeMap();
+
+	private final List<DateTimeFormatter> formatters;
+	//Position of the format that succeeded last
+	private volatile int preferred = 0;
+
+	public DateParser() {
+		this(PATTERNS);
+	}
+
+	/**
+	 * @param patterns	Patterns of the formats, the patterns must contain year, month, day, hour, minute, second and offset
+	 */
+	public DateParser(List<String> patterns) {
+		formatters = new ArrayList<DateTimeFormatter>();
+		for(String pattern : patterns) {
+			formatters.add(DateTimeFormatter.ofPattern(pattern));
+		}
+		formatters.add(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+	}
+
+	/**
+	 * Returns the parser that is shared by all callers without log
+	 */
+	public static DateParser getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Returns the parser of a log, the parser is created on the first call. The format that was detected for the
+	 * log is tried first, so logs in different formats can be parsed in parallel without retries.
+	 */
+	public static DateParser forLog(XLog log) {
+		return PARSERS.computeIfAbsent(log, l -> new DateParser());
+	}
+
+	/**
+	 * Parses a timestamp
+	 * @return date or null if the timestamp matches none of the formats
+	 */
+	public Date parse(String dateString) {
+		long millis = parseMillis(dateString);
+		if(millis == Long.MIN_VALUE) {
+			return null;
+		}
+		return new Date(millis);
+	}
+
+	/**
+	 * Parses a timestamp into milliseconds since the epoch
+	 * @return milliseconds or Long.MIN_VALUE if the timestamp matches none of the formats
+	 */
+	public long parseMillis(String dateString) {
+		if(dateString == null) {
+			return Long.MIN_VALUE;
+		}
+		int first = preferred;
+		long millis = tryParse(formatters.get(first), dateString);
+		if(millis != Long.MIN_VALUE) {
+			return millis;
+		}
+		for(int i = 0; i < formatters.size(); i++) {
+			if(i != first) {
+				millis = tryParse(formatters.get(i), dateString);
+				if(millis != Long.MIN_VALUE) {
+					preferred = i;
+					return millis;
+				}
+			}
+		}
+		return Long.MIN_VALUE;
+	}
+
+	private static long tryParse(DateTimeFormatter formatter, String dateString) {
+		ParsePosition position = new ParsePosition(0);
+		TemporalAccessor parsed = formatter.parseUnresolved(dateString, position);
+		if(parsed == null || position.getErrorIndex() >= 0 || position.getIndex() != dateString.length()) {
+			return Long.MIN_VALUE;
+		}
+		try {
+			LocalDateTime dateTime = LocalDateTime.of(
+					(int) parsed.getLong(ChronoField.YEAR),
+					(int) parsed.getLong(ChronoField.MONTH_OF_YEAR),
+					(int) parsed.getLong(ChronoField.DAY_OF_MONTH),
+					(int) parsed.getLong(ChronoField.HOUR_OF_DAY),
+					(int) parsed.getLong(ChronoField.MINUTE_OF_HOUR),
+					parsed.isSupported(ChronoField.SECOND_OF_MINUTE) ? (int) parsed.getLong(ChronoField.SECOND_OF_MINUTE) : 0,
+					parsed.isSupported(ChronoField.NANO_OF_SECOND) ? (int) parsed.getLong(ChronoField.NANO_OF_SECOND) : 0);
+			ZoneOffset offset = ZoneOffset.ofTotalSeconds((int) parsed.getLong(ChronoField.OFFSET_SECONDS));
+			return dateTime.toInstant(offset).toEpochMilli();
+		}
+		catch(DateTimeException e) {
+			//Fields that are out of range or missing
+			return Long.MIN_VALUE;
+		}
+	}
+
+}
@@ -1,14 +1,133 @@
 package util;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates unique ids for synthetic traces. The ids are counted in named namespaces, e.g. one namespace per
+ * augmentation run. A thread can bind a reserved block of ids, then getNewId returns the ids of the block
+ * without touching the shared counter.
+ *
+ * @author Martin Kaeppel
+ */
 public class IdGenerator {
-	private static int newId = 0;
+	public final static String DEFAULT_NAMESPACE = "default";
+
+	private final static ConcurrentMap<String, IdGenerator> namespaces = new ConcurrentHashMap<String, IdGenerator>();
+	private final static ThreadLocal<IdBlock> blocks = new ThreadLocal<IdBlock>();
 
-	private IdGenerator() {
-		
+	private final String name;
+	private final AtomicInteger lastId = new AtomicInteger();
+
+	private IdGenerator(String name) {
+		this.name = name;
 	}
-	
+
+	/**
+	 * Returns the next id of the block bound to the current thread or else of the default namespace
+	 */
 	public static int getNewId() {
-		newId++;
-		return newId;
+		IdBlock block = blocks.get();
+		if(block != null && block.hasNext()) {
+			return block.next();
+		}
+		return getNamespace(DEFAULT_NAMESPACE).next();
+	}
+
+	/**
+	 * Returns the namespace with the given name, the namespace is created on the first call
+	 */
+	public static IdGenerator getNamespace(String name) {
+		return namespaces.computeIfAbsent(name, IdGenerator::new);
+	}
+
+	/**
+	 * Binds a block of ids to the current thread, getNewId returns the ids of the block until it is exhausted
+	 */
+	public static void bind(IdBlock block) {
+		blocks.set(block);
+	}
+
+	/**
+	 * Removes the block that is bound to the current thread
+	 */
+	public static void unbind() {
+		blocks.remove();
+	}
+
+	/**
+	 * Returns the next id of the namespace
+	 */
+	public int next() {
+		return lastId.incrementAndGet();
+	}
+
+	/**
+	 * Reserves consecutive ids of the namespace
+	 * @param count		Number of ids
+	 * @return block of the reserved ids
+	 */
+	public IdBlock reserve(int count) {
+		int first = lastId.getAndAdd(count)+1;
+		return new IdBlock(first, count);
+	}
+
+	/**
+	 * Restarts the namespace, the next id is 1 again
+	 */
+	public void reset() {
+		lastId.set(0);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Block of consecutive ids that is used by a single thread
+	 */
+	public static class IdBlock {
+		private final int first;
+		private final int end;
+		private int next;
+
+		public IdBlock(int first, int count) {
+			this.first = first;
+			this.end = first+count;
+			this.next = first;
+		}
+
+		public boolean hasNext() {
+			return next < end;
+		}
+
+		public int next() {
+			int id = next;
+			next++;
+			return id;
+		}
+
+		/**
+		 * Continues the block at the given position, e.g. to assign ids by the positions of the traces
+		 */
+		public void seek(int position) {
+			next = first+position;
+		}
+
+		/**
+		 * Returns a block with the ids from position on
+		 */
+		public IdBlock subBlock(int position, int count) {
+			return new IdBlock(first+position, count);
+		}
+
+		public int getFirst() {
+			return first;
+		}
+
+		public int size() {
+			return end-first;
+		}
 	}
 }
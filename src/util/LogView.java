@@ -0,0 +1,149 @@
+package util;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.deckfour.xes.classification.XEventClassifier;
+import org.deckfour.xes.extension.XExtension;
+import org.deckfour.xes.info.XLogInfo;
+import org.deckfour.xes.model.XAttribute;
+import org.deckfour.xes.model.XAttributeMap;
+import org.deckfour.xes.model.XLog;
+import org.deckfour.xes.model.XTrace;
+import org.deckfour.xes.model.XVisitor;
+
+/**
+ * Read-only view of a subset of the traces of a log. The view references the traces of the underlying log by their
+ * positions, the traces are not copied. Attributes, extensions, classifiers and global attributes are the ones of
+ * the underlying log.
+ *
+ * @author Martin Kaeppel
+ */
+public class LogView extends AbstractList<XTrace> implements XLog {
+	private final XLog log;
+	private final int[] positions;
+	private final Map<XEventClassifier, XLogInfo> infos = new ConcurrentHashMap<XEventClassifier, XLogInfo>();
+
+	/**
+	 * @param log			Underlying log
+	 * @param positions		Positions of the traces of the view in the underlying log, the array must not be changed
+	 */
+	public LogView(XLog log, int[] positions) {
+		this.log = log;
+		this.positions = positions;
+	}
+
+	@Override
+	public XTrace get(int index) {
+		return log.get(positions[index]);
+	}
+
+	@Override
+	public int size() {
+		return positions.length;
+	}
+
+	/**
+	 * Returns the position of a trace of the view in the underlying log
+	 */
+	public int getPosition(int index) {
+		return positions[index];
+	}
+
+	public XLog getLog() {
+		return log;
+	}
+
+	@Override
+	public XAttributeMap getAttributes() {
+		return log.getAttributes();
+	}
+
+	@Override
+	public void setAttributes(XAttributeMap attributes) {
+		throw new UnsupportedOperationException("Log views are read-only");
+	}
+
+	@Override
+	public boolean hasAttributes() {
+		return log.hasAttributes();
+	}
+
+	@Override
+	public Set<XExtension> getExtensions() {
+		return log.getExtensions();
+	}
+
+	@Override
+	public List<XEventClassifier> getClassifiers() {
+		return log.getClassifiers();
+	}
+
+	@Override
+	public List<XAttribute> getGlobalTraceAttributes() {
+		return log.getGlobalTraceAttributes();
+	}
+
+	@Override
+	public List<XAttribute> getGlobalEventAttributes() {
+		return log.getGlobalEventAttributes();
+	}
+
+	@Override
+	public boolean accept(XVisitor visitor) {
+		if(visitor.precondition() == false) {
+			return false;
+		}
+		visitor.init(this);
+		visitor.visitLogPre(this);
+		for(XExtension extension : getExtensions()) {
+			extension.accept(visitor, this);
+		}
+		for(XEventClassifier classifier : getClassifiers()) {
+			classifier.accept(visitor, this);
+		}
+		for(XAttribute attribute : getAttributes().values()) {
+			attribute.accept(visitor, this);
+		}
+		for(XTrace trace : this) {
+			trace.accept(visitor, this);
+		}
+		visitor.visitLogPost(this);
+		return true;
+	}
+
+	@Override
+	public XLogInfo getInfo(XEventClassifier classifier) {
+		return infos.get(classifier);
+	}
+
+	@Override
+	public void setInfo(XEventClassifier classifier, XLogInfo info) {
+		infos.put(classifier, info);
+	}
+
+	/**
+	 * Returns a view of the same traces, since the view is read-only the positions are shared
+	 */
+	@Override
+	public Object clone() {
+		return new LogView(log, positions);
+	}
+
+	/*
+	 * Views are compared by identity, comparing all traces would be expensive for large views
+	 */
+	@Override
+	public boolean equals(Object o) {
+		return this == o;
+	}
+
+	@Override
+	public int hashCode() {
+		return System.identityHashCode(this);
+	}
+
+}
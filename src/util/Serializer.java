@@ -1,10 +1,12 @@
 package util;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.util.List;
 import java.util.Map;
@@ -26,7 +28,13 @@ public class Serializer {
 	public void serializeLog(XLog log, String path, String title) {
 		try {
 			XesXmlSerializer serializer = new XesXmlSerializer();
-			serializer.serialize(log, new FileOutputStream(path+"/"+title+".xes"));
+			OutputStream out = new BufferedOutputStream(new FileOutputStream(path+"/"+title+".xes"));
+			try {
+				serializer.serialize(log, out);
+			}
+			finally {
+				out.close();
+			}
 		}
 		catch(IOException e) {
 			e.printStackTrace();
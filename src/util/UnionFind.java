@@ -0,0 +1,79 @@
+package util;
+
+/**
+ * Disjoint sets over the elements 0,...,n-1 with union by size and path halving.
+ *
+ * @author Martin Kaeppel
+ */
+public class UnionFind {
+	private int[] parent;
+	private int[] size;
+	private int numberOfSets;
+
+	public UnionFind(int n) {
+		parent = new int[n];
+		size = new int[n];
+		for(int i = 0; i < n; i++) {
+			parent[i] = i;
+			size[i] = 1;
+		}
+		numberOfSets = n;
+	}
+
+	/**
+	 * Returns the representative of the set of an element
+	 */
+	public int find(int element) {
+		while(parent[element] != element) {
+			parent[element] = parent[parent[element]];
+			element = parent[element];
+		}
+		return element;
+	}
+
+	/**
+	 * Merges the sets of two elements
+	 * @return true if the elements were in different sets
+	 */
+	public boolean union(int a, int b) {
+		int rootA = find(a);
+		int rootB = find(b);
+		if(rootA == rootB) {
+			return false;
+		}
+		if(size[rootA] < size[rootB]) {
+			int temp = rootA;
+			rootA = rootB;
+			rootB = temp;
+		}
+		parent[rootB] = rootA;
+		size[rootA] = size[rootA]+size[rootB];
+		numberOfSets--;
+		return true;
+	}
+
+	/**
+	 * Merges all sets of another union find over the same elements into this one
+	 */
+	public void union(UnionFind other) {
+		for(int i = 0; i < other.parent.length; i++) {
+			int root = other.find(i);
+			if(root != i) {
+				union(i, root);
+			}
+		}
+	}
+
+	public boolean connected(int a, int b) {
+		return find(a) == find(b);
+	}
+
+	public int getNumberOfSets() {
+		return numberOfSets;
+	}
+
+	public int size() {
+		return parent.length;
+	}
+
+}
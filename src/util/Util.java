@@ -3,8 +3,6 @@ package util;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashSet;
@@ -42,16 +40,20 @@ public class Util {
 	public final static String UNIFORM_TYPE_REDUCTION_KEEP_ACTIVITY = "utrka";
 	
 	
+	/**
+	 * Parses a timestamp in one of the formats of formatStrings
+	 * @return date or null if the timestamp cannot be parsed
+	 */
 	public static Date tryParse(String dateString) {
-		for(String formatString : formatStrings) {
-			try {
-				return new SimpleDateFormat(formatString).parse(dateString);
-			}
-			catch(ParseException e) {
-				
-			}
-		}
-		return null;
+		return DateParser.getDefault().parse(dateString);
+	}
+	
+	/**
+	 * Parses a timestamp of the given log, the format that was detected for the log is tried first
+	 * @return date or null if the timestamp cannot be parsed
+	 */
+	public static Date tryParse(XLog log, String dateString) {
+		return DateParser.forLog(log).parse(dateString);
 	}
 	
 	public static void printTrace(XTrace trace) {